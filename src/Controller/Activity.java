@@ -0,0 +1,33 @@
+package Controller;
+
+/**
+ * The activities a session can be in. The Controller moves between them as
+ * lessons and drills start and finish.
+ */
+public enum Activity {
+    IDLE,
+    LESSON,
+    // A lesson showing feedback on the last answer until its timer dismisses it
+    LESSON_FEEDBACK,
+    DRILL,
+    // Scrolling practice, where cards are graded as they cross the play line
+    PRACTICE;
+
+    /**
+     * Checks if this activity accepts note input.
+     *
+     * @return true for lessons, drills and practice, false when idle
+     */
+    public boolean acceptsInput() {
+        return this != IDLE;
+    }
+
+    /**
+     * Checks if this activity is part of a lesson.
+     *
+     * @return true while a lesson card or its feedback is shown
+     */
+    public boolean isLesson() {
+        return this == LESSON || this == LESSON_FEEDBACK;
+    }
+}
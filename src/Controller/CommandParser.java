@@ -1,25 +1,38 @@
 package Controller;
 
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import View.UI;
 import View.Keyboard;
-import View.ButtonComponent;
+import View.ButtonClick;
+import View.Command;
+import View.Command.Opcode;
+import java.util.concurrent.BlockingQueue;
 import Model.Lesson;
 
-import javafx.scene.web.HTMLEditorSkin.Command;
-import javax.lang.model.util.ElementScanner14;
-
 /**
  * CommandParser is responsible for parsing and executing commands received from
  * UI components and keyboards.
- * It implements the Runnable interface to allow it to run in a separate thread.
+ * It implements the Runnable interface to allow it to run in a separate thread,
+ * which stays parked until a button publishes a click.
  */
 public class CommandParser implements Runnable {
     Controller controller;
     UI ui;
-    ArrayList<Integer> inputIDs;
+    Set<Integer> inputIDs;
     ArrayList<Keyboard> keyboards;
+    private final CommandHandler[] handlers;
     private volatile boolean running = true;
+    private volatile Thread parserThread;
+
+    // Click to dispatch latency statistics, overall and by opcode ordinal
+    private long dispatchCount;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private final long[] opcodeCounts = new long[Opcode.values().length];
+    private final long[] opcodeLatencyNanos = new long[Opcode.values().length];
+    private final long[] opcodeMaxLatencyNanos = new long[Opcode.values().length];
 
     /**
      * Constructs a CommandParser with the specified controller and UI.
@@ -30,17 +43,69 @@ public class CommandParser implements Runnable {
     public CommandParser(Controller controller, UI ui) {
         this.controller = controller;
         this.ui = ui;
-        inputIDs = new ArrayList<>();
+        inputIDs = ConcurrentHashMap.newKeySet();
         keyboards = new ArrayList<>();
+        handlers = createHandlers();
+    }
+
+    /**
+     * Builds the dispatch table, indexed by opcode ordinal.
+     * 
+     * @return the handler for every opcode
+     */
+    private CommandHandler[] createHandlers() {
+        CommandHandler[] table = new CommandHandler[Opcode.values().length];
+        table[Opcode.SHOW_HOME_PAGE.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_UNIT_SELECTION.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_LESSON_SELECTION.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_LESSON_COMPLETE.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_DRILL_COMPLETE.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_REVIEW_DRILL_COMPLETE.ordinal()] = controller::loadMenu;
+        table[Opcode.SHOW_PRACTICE_COMPLETE.ordinal()] = controller::loadMenu;
+        table[Opcode.LOAD_LESSON.ordinal()] = command -> {
+            controller.close(command.getSecondArgument());
+            Lesson lesson = controller.getLesson(command.getFirstArgument());
+            controller.resetProgressbar(lesson.getLessonSize());
+        };
+        table[Opcode.LOAD_DRILL.ordinal()] = command -> {
+            controller.close(command.getSecondArgument());
+            controller.getDrill(command.getFirstArgument());
+        };
+        table[Opcode.LOAD_PRACTICE.ordinal()] = command -> {
+            controller.close(command.getSecondArgument());
+            controller.getPractice(command.getFirstArgument());
+        };
+        table[Opcode.PAGE_NEXT.ordinal()] = command -> controller.turnPage(command.getFirstArgument(), 1);
+        table[Opcode.PAGE_PREV.ordinal()] = command -> controller.turnPage(command.getFirstArgument(), -1);
+        table[Opcode.REPLAY.ordinal()] = command -> controller.replay();
+        table[Opcode.REPLAY_MISTAKE.ordinal()] = command -> controller.replayMistake();
+        table[Opcode.BACK.ordinal()] = command -> controller.loadMainMenu();
+
+        for (Opcode opcode : Opcode.values()) {
+            if (table[opcode.ordinal()] == null) {
+                throw new IllegalStateException("No handler for command " + opcode.getName());
+            }
+        }
+        return table;
     }
 
     /**
-     * Updates the list of input IDs that the parser should listen to.
+     * Adds an input ID that the parser should listen to.
      * 
-     * @param parsables the list of input IDs to be updated
+     * @param inputID the ID of the button to be listened to
      */
-    public void updateInputIDs(ArrayList<Integer> parsables) {
-        this.inputIDs = parsables;
+    public void addInputID(int inputID) {
+        inputIDs.add(inputID);
+    }
+
+    /**
+     * Stops the parser from accepting clicks from a button, for buttons that are
+     * being destroyed.
+     * 
+     * @param inputID the ID of the button
+     */
+    public void removeInputID(int inputID) {
+        inputIDs.remove(inputID);
     }
 
     /**
@@ -53,92 +118,133 @@ public class CommandParser implements Runnable {
     }
 
     /**
-     * The main execution method of the CommandParser. It continuously checks for
-     * messages
-     * from UI components and keyboards, and parses them if found.
+     * The main execution method of the CommandParser. It waits on the UI's click
+     * queue and posts the command each click carried, for the buttons it
+     * listens to, to the controller's session.
      */
     @Override
     public void run() {
-        ButtonComponent button;
-        String input;
+        parserThread = Thread.currentThread();
+        BlockingQueue<ButtonClick> clicks = ui.getButtonClicks();
+        ButtonClick click;
         while (running) {
-            for (int id : inputIDs) {
-                button = (ButtonComponent) ui.getViewComponent(id);
-                if (button.hasMessage()) {
-                    input = button.getMessage();
-                    parse(input);
-                }
-            }
-
             try {
-                // Sleep briefly to prevent excessive CPU usage in the loop
-                Thread.sleep(1);
+                click = clicks.take();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt(); // Restore interrupted status
+                break;
+            }
+            if (inputIDs.contains(click.getButton().getID())) {
+                long clickTime = click.getTime();
+                Command command = click.getCommand();
+                controller.getSession().execute(() -> {
+                    dispatch(command);
+                    recordLatency(command.getOpcode(), System.nanoTime() - clickTime);
+                });
             }
-
         }
     }
 
     /**
-     * Stops the CommandParser from running.
+     * Stops the CommandParser from running and, if the pitchperfect.stats
+     * property is set, prints the dispatch latency.
      */
     public void stop() {
         running = false;
+        if (parserThread != null) {
+            parserThread.interrupt();
+        }
+        if (Boolean.getBoolean("pitchperfect.stats")) {
+            System.out.println(getLatencyReport());
+        }
+    }
+
+    /**
+     * Returns a summary of the time between button clicks and their commands
+     * finishing, overall and for each command used. The lines for the show and
+     * load commands and back give the screen-switch latency; replay and
+     * replayMistake only play notes, and pageNext and pagePrev rebind the
+     * buttons of the screen already shown.
+     *
+     * @return the latency report
+     */
+    public String getLatencyReport() {
+        double average = dispatchCount == 0 ? 0 : totalLatencyNanos / 1000.0 / dispatchCount;
+        StringBuilder report = new StringBuilder(String.format(
+                "Command dispatch: %d clicks, %.1f us average, %.1f us max latency",
+                dispatchCount, average, maxLatencyNanos / 1000.0));
+        for (Opcode opcode : Opcode.values()) {
+            int i = opcode.ordinal();
+            if (opcodeCounts[i] > 0) {
+                report.append(String.format("%n  %s: %d clicks, %.1f us average, %.1f us max latency",
+                        opcode.getName(), opcodeCounts[i], opcodeLatencyNanos[i] / 1000.0 / opcodeCounts[i],
+                        opcodeMaxLatencyNanos[i] / 1000.0));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Records the latency of one dispatched click. Used by the run loop and by
+     * the headless runner, which dispatches its clicks directly.
+     *
+     * @param opcode       the opcode of the dispatched command
+     * @param latencyNanos the time from click to command completion
+     */
+    void recordLatency(Opcode opcode, long latencyNanos) {
+        dispatchCount++;
+        totalLatencyNanos += latencyNanos;
+        if (latencyNanos > maxLatencyNanos) {
+            maxLatencyNanos = latencyNanos;
+        }
+        int i = opcode.ordinal();
+        opcodeCounts[i]++;
+        opcodeLatencyNanos[i] += latencyNanos;
+        if (latencyNanos > opcodeMaxLatencyNanos[i]) {
+            opcodeMaxLatencyNanos[i] = latencyNanos;
+        }
     }
 
     /**
-     * Parses the given command string and executes the corresponding action.
+     * Compiles the given command string and executes the corresponding action.
      *
      * @param command the command string to parse and execute
-     * 
-     *                The command string should be in the format of a
-     *                space-separated list of arguments.
-     *                The first argument specifies the command type, and the
-     *                subsequent arguments are
-     *                the parameters for that command.
-     * 
-     *                Supported commands:
-     *                - "displayComponent": (implementation needed)
-     *                - "checkAnswer": (implementation needed)
-     *                - "toggleKeys": followed by a list of integers representing
-     *                notes to combine
-     *                - "showUnitSelection": loads the unit selection menu
-     *                - "showLessonSelection": loads the lesson selection menu
-     *                - "loadLesson": followed by two integers, the first for the
-     *                lesson ID and the second for the close command
-     * 
-     *                If the command is not recognized, it should be handled
-     *                appropriately.
+     * @throws IllegalArgumentException if the command is not recognized
      */
     public void parse(String command) {
-        String[] args = command.split(" ");
+        dispatch(Command.compile(command));
+    }
 
-        switch (args[0]) {
-            case "displayComponent":
-                // implement
-                break;
-            case "checkAnswer":
-                // implement
-                break;
-            case "showUnitSelection":
-            case "showLessonSelection":
-            case "showHomePage":
-                controller.loadMenu(command);
-                break;
-            case "loadLesson":
-                controller.close(Integer.parseInt(args[2]));
-                Lesson lesson = controller.getLesson(Integer.parseInt(args[1]));
-                controller.resetProgressbar(lesson.getLessonSize());
-                break;
-            case "loadDrill":
-                controller.close(Integer.parseInt(args[2]));
-                controller.getDrill(Integer.parseInt(args[1]));
-                break;
-            case "back":
-                controller.loadMainMenu();
-            default:
-                break;
+    /**
+     * Executes a compiled command through the dispatch table.
+     *
+     * Supported commands:
+     * - "showHomePage", "showUnitSelection", "showLessonSelection",
+     * "showLessonComplete", "showDrillComplete", "showReviewDrillComplete",
+     * "showPracticeComplete":
+     * loads the menu, the argument selects the unit for lesson selection
+     * - "loadLesson", "loadDrill": followed by two integers, the first for the
+     * lesson or drill ID and the second for the menu to close
+     * - "loadPractice": followed by two integers, the first for the unit whose
+     * lessons are practiced and the second for the menu to close
+     * - "pageNext", "pagePrev": followed by the ID of the paged menu to turn
+     * - "replay": replays the user's last few seconds of playing
+     * - "replayMistake": replays the last drill card answered wrong
+     * - "back": returns to the main menu
+     *
+     * @param command the command to execute, ignored if null
+     */
+    public void dispatch(Command command) {
+        if (command == null) {
+            return;
         }
+        handlers[command.getOpcode().ordinal()].handle(command);
+    }
+
+    /**
+     * Handles one kind of command.
+     */
+    private interface CommandHandler {
+        void handle(Command command);
     }
 }
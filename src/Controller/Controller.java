@@ -2,7 +2,9 @@
  * The Controller class is responsible for managing the interactions between the
  * user interface, audio handling, MIDI input, and the model. It coordinates
  * activities such as lessons and drills, processes user inputs, and updates
- * the UI accordingly.
+ * the UI accordingly. All session state is owned by the Session thread; MIDI
+ * and UI events are posted to it rather than handled on the thread that
+ * delivered them.
  */
 package Controller;
 
@@ -10,28 +12,67 @@ import Model.*;
 import View.*;
 import javafx.stage.Stage;
 import javax.sound.midi.MidiUnavailableException;
+import javax.sound.sampled.LineUnavailableException;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 
 public class Controller {
-    private String activity;
+    private volatile Activity activity;
+    private Clock clock;
+    private Session session;
     private UI ui;
-    private AudioHandler audio;
+    private AudioEngine audio;
     private MidiInputHandler midiInputHandler;
     private AnswerProcessor answerProcessor;
     private LessonViewer lessonViewer;
     private DrillViewer drillViewer;
+    private PracticeViewer practiceViewer;
     private CommandParser commandParser;
-    private ArrayList<Integer> parsables;
     private MenuViewer menuViewer;
+    private AssetPreloader assetPreloader;
     private Model model;
 
-    private boolean check;
     private int currentFlashcardIndex;
     private int totalDrillFlashcards;
     private Flashcard[] flashcards;
     private ArrayList<Flashcard> incorrectAnswers;
-    private int nextReviewLessonID;
+    private int reviewLessonID;
+    private NoteHistory noteHistory;
+    private long feedbackMillis;
+    private Session.Timer feedbackTimer;
+    private boolean feedbackAdvances;
+    private Session.Timer drillTimer;
+    private long drillStartTime;
+    private int drillTimeLimit;
+    private int drillSecondsLeft;
+    private long practiceStartTime;
+    private long practiceNanosPerCard;
+    private Session.Timer practiceTimer;
+    private int practiceCorrect;
+    private long chordStartTime;
+    private boolean chordStarted;
+    private long missedChordStart;
+    private long missedChordEnd;
+    private boolean hasMissedChord;
+    private long practiceEarlyChords;
+    private boolean printStatistics;
+
+    private static final Command SHOW_LESSON_COMPLETE = Command.compile("showLessonComplete 0");
+    private static final Command SHOW_REVIEW_DRILL_COMPLETE = Command.compile("showReviewDrillComplete 0");
+    private static final Command SHOW_PRACTICE_COMPLETE = Command.compile("showPracticeComplete 0");
+
+    // How long lesson feedback stays up unless the next answer starts sooner
+    private static final long DEFAULT_FEEDBACK_MILLIS = 500;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    // Cards per minute in scrolling practice, and how many beats pass before the first card arrives
+    private static final int DEFAULT_PRACTICE_TEMPO = 40;
+    private static final int PRACTICE_LEAD_IN_CARDS = 4;
+
+    // How far back the replay button reaches
+    private static final long REPLAY_WINDOW_NANOS = 5000000000L;
 
     /**
      * Constructs a Controller with the given primary stage.
@@ -41,19 +82,128 @@ public class Controller {
      * @throws MidiUnavailableException if the MIDI device is unavailable
      */
     public Controller(Stage primaryStage) throws IOException, MidiUnavailableException {
-        ui = new UI(primaryStage);
-        parsables = new ArrayList<>();
+        this(primaryStage, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a Controller with the given primary stage and clock.
+     *
+     * @param primaryStage the primary stage
+     * @param clock        the clock for timers, feedback, drills and scoring
+     * @throws IOException              if an I/O error occurs
+     * @throws MidiUnavailableException if the MIDI device is unavailable
+     */
+    public Controller(Stage primaryStage, Clock clock) throws IOException, MidiUnavailableException {
+        this(new FxViewBackend(primaryStage), clock, null);
+        midiInputHandler = new MidiInputHandler(this);
+        session.start();
+    }
+
+    /**
+     * Constructs a Controller that shows its screens through the given backend,
+     * without MIDI input. The session is not started, so it can be started with
+     * getSession().start() or stepped on the caller's thread with
+     * Session.runPending() and Session.advance(...). Notes are played through
+     * onNoteOn and onNoteOff.
+     *
+     * @param backend the view backend, for example a HeadlessViewBackend
+     * @param clock   the clock for timers, feedback, drills and scoring
+     * @param audio   the engine to echo notes with, or null for the default one
+     * @throws MidiUnavailableException if audio is null and the synthesizer is
+     *                                  unavailable
+     */
+    public Controller(ViewBackend backend, Clock clock, AudioEngine audio) throws MidiUnavailableException {
+        this.clock = clock;
+        activity = Activity.IDLE;
+        feedbackMillis = Long.getLong("pitchperfect.feedbackMillis", DEFAULT_FEEDBACK_MILLIS);
+        printStatistics = Boolean.getBoolean("pitchperfect.stats");
+        int practiceTempo = Integer.getInteger("pitchperfect.practiceTempo", DEFAULT_PRACTICE_TEMPO);
+        if (practiceTempo <= 0) {
+            throw new IllegalArgumentException("Practice tempo must be positive: " + practiceTempo);
+        }
+        practiceNanosPerCard = 60 * NANOS_PER_SECOND / practiceTempo;
+        session = new Session(clock);
+        ui = new UI(backend);
+        if (Boolean.getBoolean("pitchperfect.frameOverlay")) {
+            showFrameOverlay();
+        }
+        if (backend.hasDisplay()) {
+            // Decodes the images in the background while the screens are built
+            assetPreloader = new AssetPreloader(ImageCache.getShared());
+            assetPreloader.start(() -> session.execute(this::showLoadingProgress));
+        }
         commandParser = new CommandParser(this, ui);
-        audio = new AudioHandler();
+        model = new Model();
+        this.audio = audio != null ? audio : createAudioEngine();
         lessonViewer = new LessonViewer(ui, this);
         lessonViewer.initializeLesson();
         drillViewer = new DrillViewer(ui, this);
         drillViewer.initializeDrill();
-        midiInputHandler = new MidiInputHandler(this);
-        model = new Model();
-        nextReviewLessonID = model.getLessons().size();
+        practiceViewer = new PracticeViewer(ui, this);
+        practiceViewer.initializePractice();
+        reviewLessonID = model.getLessons().size();
         answerProcessor = new AnswerProcessor();
+        noteHistory = new NoteHistory();
         menuViewer = new MenuViewer(this, ui, model.getUnits());
+        if (assetPreloader == null) {
+            // Nothing is decoded without a display, so the home page is ready at once
+            menuViewer.showLoadingProgress(0, 0);
+        }
+        if (Boolean.parseBoolean(System.getProperty("pitchperfect.prebuildMenus", "true"))) {
+            session.execute(this::prebuildMenu);
+        }
+    }
+
+    /**
+     * Shows the frame time summary in the top right corner of the window.
+     */
+    private void showFrameOverlay() {
+        int overlayID = ui.createViewComponent("text");
+        TextComponent overlay = (TextComponent) ui.getViewComponent(overlayID);
+        overlay.updateXY(new int[] { ui.getScreenWidth() - 450, ui.getScreenWidth(), 0, 30 });
+        overlay.setHidden(false);
+        ui.getFrameMonitor().setOverlay(overlay);
+    }
+
+    /**
+     * Builds one menu that has not been built yet and posts itself again until
+     * every menu is built. Each menu is its own session event, so input that
+     * arrives in between is handled without waiting for the rest.
+     */
+    private void prebuildMenu() {
+        if (menuViewer.prebuildNext()) {
+            session.execute(this::prebuildMenu);
+        } else if (printStatistics) {
+            System.out.println(menuViewer.getBuildStatistics());
+        }
+    }
+
+    /**
+     * Shows the asset preloading progress on the home page. Posted by the
+     * preloader after each image; runs once the session has started.
+     */
+    private void showLoadingProgress() {
+        menuViewer.showLoadingProgress(assetPreloader.getLoaded(), assetPreloader.getTotal());
+    }
+
+    /**
+     * Creates the audio engine used to echo the user's notes. The sample based
+     * engine is used when the "pitchperfect.audio" system property is set to
+     * "sample", otherwise the General MIDI synthesizer is used with the
+     * instruments the curriculum's units use.
+     *
+     * @return the audio engine
+     * @throws MidiUnavailableException if the synthesizer is unavailable
+     */
+    private AudioEngine createAudioEngine() throws MidiUnavailableException {
+        if ("sample".equals(System.getProperty("pitchperfect.audio"))) {
+            try {
+                return new SampleAudioEngine();
+            } catch (LineUnavailableException e) {
+                System.err.println("Failed to open sample engine, using synthesizer: " + e.getMessage());
+            }
+        }
+        return new AudioHandler(model.getPrograms());
     }
 
     /**
@@ -61,10 +211,59 @@ public class Controller {
      *
      * @param command the command to load the menu
      */
-    public void loadMenu(String command) {
+    public void loadMenu(Command command) {
         menuViewer.loadMenu(command);
     }
 
+    /**
+     * Turns the page of a paged menu.
+     *
+     * @param menuID the ID of the menu's group
+     * @param delta  the number of pages to move, negative to move back
+     */
+    public void turnPage(int menuID, int delta) {
+        menuViewer.turnPage(menuID, delta);
+    }
+
+    /**
+     * Returns the activity the session is in.
+     *
+     * @return the current activity
+     */
+    public Activity getActivity() {
+        return activity;
+    }
+
+    /**
+     * Returns the flashcard being answered in the current lesson or drill.
+     *
+     * @return the current flashcard, or null when no lesson or drill is active
+     */
+    public Flashcard getCurrentFlashcard() {
+        if (!activity.acceptsInput() || flashcards == null) {
+            return null;
+        }
+        return flashcards[currentFlashcardIndex];
+    }
+
+    /**
+     * Returns the user interface.
+     *
+     * @return the UI
+     */
+    public UI getUI() {
+        return ui;
+    }
+
+    /**
+     * Retrieves the Session that owns the controller's state.
+     *
+     * @return the session used by the controller.
+     */
+    public Session getSession() {
+        return session;
+    }
+
     /**
      * Retrieves the CommandParser instance.
      *
@@ -75,14 +274,39 @@ public class Controller {
     }
 
     /**
-     * Adds a parsable ID to the list of parsables and updates the command parser
-     * with the new list of IDs.
+     * Registers a parsable ID with the command parser so that clicks on it are
+     * dispatched.
      *
      * @param parsableID the ID of the parsable to be added
      */
     public void addParsable(int parsableID) {
-        parsables.add(parsableID);
-        commandParser.updateInputIDs(parsables);
+        commandParser.addInputID(parsableID);
+    }
+
+    /**
+     * Destroys a view component and its descendants, unregistering any of them
+     * from the command parser first so their recycled IDs are not dispatched.
+     *
+     * @param viewComponentID the ID of the view component to be destroyed
+     */
+    public void destroy(int viewComponentID) {
+        unregisterParsables(ui.getViewComponent(viewComponentID));
+        ui.destroyViewComponent(viewComponentID);
+    }
+
+    /**
+     * Unregisters a view component and its descendants from the command parser.
+     *
+     * @param component the root of the tree to unregister
+     */
+    private void unregisterParsables(ViewComponent component) {
+        if (component == null) {
+            return;
+        }
+        commandParser.removeInputID(component.getID());
+        for (int i = 0; i < component.getNumChildren(); i++) {
+            unregisterParsables(component.getComponents()[i]);
+        }
     }
 
     /**
@@ -92,6 +316,7 @@ public class Controller {
      */
     public Lesson getLesson(int lessonID) {
         Lesson currentLesson = model.getLesson(lessonID);
+        selectProgram(model.getUnitOf(currentLesson));
         startLesson(currentLesson);
         return currentLesson;
     }
@@ -102,8 +327,11 @@ public class Controller {
     private void startLesson(Lesson lesson) {
         flashcards = lesson.getFlashcards();
         currentFlashcardIndex = 0;
+        chordStarted = false;
+        noteHistory.clear();
+        cancelFeedback();
 
-        activity = "Lesson";
+        activity = Activity.LESSON;
         answerProcessor.setFlashcard(flashcards[currentFlashcardIndex]);
         lessonViewer.loadFlashcard(flashcards[currentFlashcardIndex]);
     }
@@ -115,9 +343,21 @@ public class Controller {
      */
     public void getDrill(int drillID) {
         Drill currentDrill = model.getDrill(drillID);
+        selectProgram(model.getUnitOf(currentDrill));
         startDrill(currentDrill);
     }
 
+    /**
+     * Echoes notes with the program of the unit an activity belongs to.
+     *
+     * @param unit the unit, or null to keep the current program
+     */
+    private void selectProgram(Unit unit) {
+        if (unit != null) {
+            audio.setProgram(unit.getProgram());
+        }
+    }
+
     /**
      * Starts a drill activity with the given drill.
      *
@@ -127,70 +367,437 @@ public class Controller {
         flashcards = drill.getFlashcards();
         currentFlashcardIndex = 0;
         totalDrillFlashcards = drill.getLessonSize();
-        activity = "Drill";
+        activity = Activity.DRILL;
         incorrectAnswers = new ArrayList<Flashcard>();
+        chordStarted = false;
+        hasMissedChord = false;
+        noteHistory.clear();
         answerProcessor.setFlashcard(flashcards[currentFlashcardIndex]);
         drillViewer.loadFlashcard(flashcards[currentFlashcardIndex]);
+        startDrillTimer(drill.getTimeLim());
+    }
+
+    /**
+     * Starts the drill countdown. Ticks are scheduled at whole seconds from the
+     * start on the session clock so they do not drift.
+     *
+     * @param seconds the drill's time limit in seconds
+     */
+    private void startDrillTimer(int seconds) {
+        cancelDrillTimer();
+        drillStartTime = clock.nanoTime();
+        drillTimeLimit = seconds;
+        drillSecondsLeft = seconds;
+        drillViewer.showTimer(drillSecondsLeft);
+        drillTimer = session.scheduleAt(this::tickDrillTimer, drillStartTime + NANOS_PER_SECOND);
     }
 
     /**
-     * Stops the controller and cleans up resources.
+     * Counts the drill down by one second, ending the drill when time runs out.
+     * Cards that were not answered in time are counted as incorrect.
+     */
+    private void tickDrillTimer() {
+        if (activity != Activity.DRILL) {
+            return;
+        }
+        drillSecondsLeft--;
+        drillViewer.showTimer(drillSecondsLeft);
+        if (drillSecondsLeft > 0) {
+            long elapsedSeconds = drillTimeLimit - drillSecondsLeft;
+            drillTimer = session.scheduleAt(this::tickDrillTimer,
+                    drillStartTime + (elapsedSeconds + 1) * NANOS_PER_SECOND);
+            return;
+        }
+        drillTimer = null;
+        for (int i = currentFlashcardIndex; i < flashcards.length; i++) {
+            incorrectAnswers.add(flashcards[i]);
+        }
+        completeActivity();
+    }
+
+    /**
+     * Cancels the drill countdown, if it is running.
+     */
+    private void cancelDrillTimer() {
+        if (drillTimer != null) {
+            drillTimer.cancel();
+            drillTimer = null;
+        }
+    }
+
+    /**
+     * Starts scrolling practice with the flashcards of every lesson in a unit.
+     *
+     * @param unitID the ID of the unit to practice
+     * @throws IllegalArgumentException if there is no such unit or it has no
+     *                                  flashcards
+     */
+    public void getPractice(int unitID) {
+        Unit practiceUnit = null;
+        for (Unit unit : model.getUnits()) {
+            if (unit.getUnitID() == unitID) {
+                practiceUnit = unit;
+            }
+        }
+        if (practiceUnit == null) {
+            throw new IllegalArgumentException("No unit with ID " + unitID);
+        }
+        ArrayList<Flashcard> cards = new ArrayList<Flashcard>();
+        for (Lesson lesson : practiceUnit.getLessons()) {
+            for (Flashcard flashcard : lesson.getFlashcards()) {
+                cards.add(flashcard);
+            }
+        }
+        if (cards.isEmpty()) {
+            throw new IllegalArgumentException("Unit " + unitID + " has no flashcards to practice");
+        }
+        selectProgram(practiceUnit);
+        startPractice(cards.toArray(new Flashcard[0]));
+    }
+
+    /**
+     * Starts scrolling practice. Card i reaches the play line
+     * PRACTICE_LEAD_IN_CARDS + i beats from now and must be played within half
+     * a beat of it.
+     *
+     * @param cards the flashcards to practice, in order
+     */
+    private void startPractice(Flashcard[] cards) {
+        flashcards = cards;
+        currentFlashcardIndex = 0;
+        practiceCorrect = 0;
+        chordStarted = false;
+        noteHistory.clear();
+        cancelFeedback();
+        cancelPracticeTimer();
+
+        activity = Activity.PRACTICE;
+        answerProcessor.setFlashcard(flashcards[currentFlashcardIndex]);
+        practiceStartTime = clock.nanoTime() + PRACTICE_LEAD_IN_CARDS * practiceNanosPerCard;
+        // The staff scrolls by pulse time, which is the session clock unless the clock is virtual
+        practiceViewer.start(flashcards, practiceStartTime, practiceNanosPerCard);
+        schedulePracticeDeadline();
+    }
+
+    /**
+     * Returns the time the current practice card reaches the play line.
+     *
+     * @return the time on the session clock in nanoseconds
+     * @throws IllegalStateException if no practice is running
+     */
+    public long getPracticePlayTime() {
+        if (activity != Activity.PRACTICE) {
+            throw new IllegalStateException("No practice is running");
+        }
+        return practicePlayTime(currentFlashcardIndex);
+    }
+
+    /**
+     * Returns the time a practice card reaches the play line.
+     *
+     * @param card the index of the card
+     * @return the time on the session clock in nanoseconds
+     */
+    private long practicePlayTime(int card) {
+        return practiceStartTime + card * practiceNanosPerCard;
+    }
+
+    /**
+     * Schedules the end of the current practice card's window, half a beat
+     * after it reaches the play line.
+     */
+    private void schedulePracticeDeadline() {
+        practiceTimer = session.scheduleAt(this::missPracticeCard,
+                practicePlayTime(currentFlashcardIndex) + practiceNanosPerCard / 2);
+    }
+
+    /**
+     * Marks the current practice card as missed when its window closes, unless
+     * a chord was started in the window, which is graded once it is released.
+     */
+    private void missPracticeCard() {
+        practiceTimer = null;
+        if (activity != Activity.PRACTICE) {
+            return;
+        }
+        long windowOpens = practicePlayTime(currentFlashcardIndex) - practiceNanosPerCard / 2;
+        if (chordStarted && chordStartTime - windowOpens >= 0) {
+            return;
+        }
+        gradePracticeCard(ScrollingStaffComponent.MISSED);
+    }
+
+    /**
+     * Grades a chord the user has released against the current practice card.
+     * Chords started before the card's window opens are ignored.
+     */
+    private void answerPracticeCard() {
+        boolean answer = answerProcessor.checkAnswer();
+        long windowOpens = practicePlayTime(currentFlashcardIndex) - practiceNanosPerCard / 2;
+        if (chordStartTime - windowOpens < 0) {
+            practiceEarlyChords++;
+            return;
+        }
+        cancelPracticeTimer();
+        gradePracticeCard(answer ? ScrollingStaffComponent.CORRECT : ScrollingStaffComponent.WRONG);
+    }
+
+    /**
+     * Grades the current practice card and moves on to the next one.
+     *
+     * @param grade ScrollingStaffComponent.CORRECT, WRONG or MISSED
+     */
+    private void gradePracticeCard(byte grade) {
+        practiceViewer.grade(currentFlashcardIndex, grade);
+        if (grade == ScrollingStaffComponent.CORRECT) {
+            practiceCorrect++;
+            practiceViewer.showScore(practiceCorrect, flashcards.length);
+        }
+        if (currentFlashcardIndex < flashcards.length - 1) {
+            currentFlashcardIndex++;
+            answerProcessor.setFlashcard(flashcards[currentFlashcardIndex]);
+            schedulePracticeDeadline();
+        } else {
+            completeActivity();
+        }
+    }
+
+    /**
+     * Cancels the current practice card's deadline, if it is pending.
+     */
+    private void cancelPracticeTimer() {
+        if (practiceTimer != null) {
+            practiceTimer.cancel();
+            practiceTimer = null;
+        }
+    }
+
+    /**
+     * Sets whether the menu build time is printed once every menu is built,
+     * and whether stop() prints the render, menu, cache, frame and note
+     * statistics. Defaults to the pitchperfect.stats property.
+     *
+     * @param printStatistics true to print the statistics
+     */
+    void setPrintStatistics(boolean printStatistics) {
+        this.printStatistics = printStatistics;
+    }
+
+    /**
+     * Stops the controller and cleans up resources. The statistics are
+     * printed if enabled, and the frame log is written if one was requested.
      */
     public void stop() {
+        session.stop();
         if (midiInputHandler != null) {
             midiInputHandler.close();
         }
         if (audio != null) {
             audio.close();
         }
+        if (printStatistics) {
+            printStatistics();
+        }
+        String frameLog = System.getProperty("pitchperfect.frameLog");
+        if (frameLog != null) {
+            try {
+                ui.getFrameMonitor().exportCsv(Paths.get(frameLog));
+                System.out.println("Frame log written to " + frameLog);
+            } catch (IOException e) {
+                System.err.println("Failed to write frame log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prints the statistics gathered during the session.
+     */
+    private void printStatistics() {
+        System.out.println(ui.getRenderScheduler().getStatistics());
+        System.out.println(ui.getRenderScheduler().getOrderStatistics());
+        System.out.println(ui.getRegistryStatistics());
+        System.out.println(menuViewer.getBuildStatistics());
+        System.out.println(menuViewer.getSelectionStatistics());
+        System.out.println(ImageCache.getShared().getStatistics());
+        System.out.println(TextureAtlas.getStatistics());
+        System.out.println(ui.getFrameMonitor().getStatistics());
+        System.out.println("Held note latency in lessons:");
+        System.out.println(lessonViewer.getHeldNoteLatency());
+        System.out.println("Held note latency in drills:");
+        System.out.println(drillViewer.getHeldNoteLatency());
+        System.out.println(practiceViewer.getStatistics() + ", " + practiceEarlyChords + " early practice chords ignored");
     }
 
     /**
-     * Handles the note on event.
+     * Handles the note on event delivered by the MIDI thread. The note is echoed
+     * straight away and the answer handling is posted to the session.
      *
      * @param note     the MIDI note number
      * @param velocity the velocity of the note
      */
     public void onNoteOn(int note, int velocity) {
-        if (activity != null && activity != "") {
+        long time = clock.nanoTime();
+        // Real time, for measuring how long the note takes to be drawn
+        long pressedAt = System.nanoTime();
+        if (activity.acceptsInput()) {
             audio.noteOn(note, velocity);
-            answerProcessor.noteOn(note);
         }
+        session.execute(() -> handleNoteOn(time, pressedAt, note, velocity));
     }
 
     /**
-     * Handles the note off event.
+     * Handles the note off event delivered by the MIDI thread. The note is
+     * released straight away and the answer handling is posted to the session.
      *
      * @param note the MIDI note number
      */
     public void onNoteOff(int note) {
-        if (activity != null && activity != "") {
+        long time = clock.nanoTime();
+        if (activity.acceptsInput()) {
             audio.noteOff(note);
-            check = answerProcessor.noteOff(note);
-            if (check) {
-                if (activity.equals("Lesson")) {
-                    int[] input = answerProcessor.getInput();
-                    boolean answer = answerProcessor.checkAnswer();
-                    lessonViewer.loadFeedback(flashcards[currentFlashcardIndex], input, answer);
-                    try {
-                        Thread.sleep(500);
-                    } catch (Exception e) {
-                        System.out.println("Error");
-                    }
-                    lessonViewer.closeFeedback();
-                    if (answer) {
-                        moveToNextFlashcard();
-                    }
-                }
+        }
+        session.execute(() -> handleNoteOff(time, note));
+    }
 
-                if (activity.equals("Drill")) {
-                    boolean answer = answerProcessor.checkAnswer();
-                    if (!answer) {
-                        incorrectAnswers.add(flashcards[currentFlashcardIndex]);
-                    }
-                    moveToNextFlashcard();
+    /**
+     * Records a pressed note and shows it on the staff. Runs on the session
+     * thread.
+     *
+     * @param time      the time the note arrived in nanoseconds
+     * @param pressedAt the System.nanoTime() the note arrived at
+     * @param note      the MIDI note number
+     * @param velocity  the velocity of the note
+     */
+    private void handleNoteOn(long time, long pressedAt, int note, int velocity) {
+        if (activity == Activity.LESSON_FEEDBACK) {
+            // Playing the next answer dismisses the feedback straight away
+            dismissFeedback();
+        }
+        if (activity.acceptsInput()) {
+            noteHistory.record(time, note, velocity);
+            answerProcessor.noteOn(note);
+        }
+        if (activity.acceptsInput() && !chordStarted) {
+            // A chord is timed from its first note
+            chordStartTime = time;
+            chordStarted = true;
+        }
+        if (activity == Activity.LESSON) {
+            lessonViewer.pressNote(note, pressedAt);
+        } else if (activity == Activity.DRILL) {
+            drillViewer.pressNote(note, pressedAt);
+        }
+    }
+
+    /**
+     * Records a released note and checks the answer once every key is up. Runs
+     * on the session thread.
+     *
+     * @param time the time the note arrived in nanoseconds
+     * @param note the MIDI note number
+     */
+    private void handleNoteOff(long time, int note) {
+        if (!activity.acceptsInput()) {
+            return;
+        }
+        noteHistory.record(time, note, 0);
+        if (activity.isLesson()) {
+            lessonViewer.releaseNote(note);
+        } else if (activity == Activity.DRILL) {
+            drillViewer.releaseNote(note);
+        }
+        if (!answerProcessor.noteOff(note)) {
+            return;
+        }
+        long chordStart = chordStartTime;
+        chordStarted = false;
+        switch (activity) {
+            case LESSON: {
+                int[] input = answerProcessor.getInput();
+                boolean answer = answerProcessor.checkAnswer();
+                lessonViewer.loadFeedback(flashcards[currentFlashcardIndex], input, answer);
+                activity = Activity.LESSON_FEEDBACK;
+                feedbackAdvances = answer;
+                feedbackTimer = session.schedule(this::dismissFeedback, feedbackMillis);
+                break;
+            }
+            case DRILL: {
+                boolean answer = answerProcessor.checkAnswer();
+                if (!answer) {
+                    incorrectAnswers.add(flashcards[currentFlashcardIndex]);
+                    // Kept so the chord can be replayed from the review screen
+                    missedChordStart = chordStart;
+                    missedChordEnd = time;
+                    hasMissedChord = true;
                 }
+                moveToNextFlashcard();
+                break;
             }
+            case PRACTICE:
+                answerPracticeCard();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Closes the lesson feedback and, if the answer was correct, moves to the
+     * next flashcard. Runs when the feedback timer fires or when the user starts
+     * the next answer early.
+     */
+    private void dismissFeedback() {
+        if (activity != Activity.LESSON_FEEDBACK) {
+            return;
+        }
+        cancelFeedback();
+        lessonViewer.closeFeedback();
+        activity = Activity.LESSON;
+        if (feedbackAdvances) {
+            moveToNextFlashcard();
+        }
+    }
+
+    /**
+     * Cancels the pending feedback timer, if any.
+     */
+    private void cancelFeedback() {
+        if (feedbackTimer != null) {
+            feedbackTimer.cancel();
+            feedbackTimer = null;
+        }
+    }
+
+    /**
+     * Sets how long lesson feedback is shown before it is dismissed.
+     *
+     * @param feedbackMillis the feedback duration in milliseconds
+     */
+    public void setFeedbackDuration(long feedbackMillis) {
+        session.execute(() -> this.feedbackMillis = feedbackMillis);
+    }
+
+    /**
+     * Replays the notes the user played in the last few seconds and, during a
+     * lesson, overlays them on the staff.
+     */
+    public void replay() {
+        long now = clock.nanoTime();
+        noteHistory.replay(audio, now, REPLAY_WINDOW_NANOS);
+        if (activity.isLesson()) {
+            int[] recentNotes = noteHistory.getRecentNotes(now, REPLAY_WINDOW_NANOS, LessonViewer.MAX_INPUT_NOTES);
+            lessonViewer.loadReplay(flashcards[currentFlashcardIndex], recentNotes);
+        }
+    }
+
+    /**
+     * Replays the chord the user played for the last drill card they answered
+     * wrong, from its first note down to its last release. Does nothing if no
+     * card has been missed since the drill started.
+     */
+    public void replayMistake() {
+        if (hasMissedChord) {
+            noteHistory.replayBetween(audio, missedChordStart, missedChordEnd);
         }
     }
 
@@ -208,13 +815,13 @@ public class Controller {
      * flashcards.
      */
     private void moveToNextFlashcard() {
-        if (activity != null && !activity.isEmpty()) {
+        if (activity.acceptsInput()) {
             if (currentFlashcardIndex < flashcards.length - 1) {
                 currentFlashcardIndex++;
                 answerProcessor.setFlashcard(flashcards[currentFlashcardIndex]);
-                if (activity.equals("Lesson")) {
+                if (activity == Activity.LESSON) {
                     lessonViewer.loadFlashcard(flashcards[currentFlashcardIndex]);
-                } else if (activity.equals("Drill")) {
+                } else if (activity == Activity.DRILL) {
                     drillViewer.loadFlashcard(flashcards[currentFlashcardIndex]);
                 }
             } else {
@@ -224,25 +831,31 @@ public class Controller {
     }
 
     /**
-     * Completes the current activity (lesson or drill).
+     * Completes the current activity (lesson, drill or practice).
      */
     private void completeActivity() {
-        if (activity.equals("Lesson")) {
-            activity = "";
+        if (activity == Activity.LESSON) {
+            activity = Activity.IDLE;
             lessonViewer.close();
-            menuViewer.loadMenu("showLessonComplete 0");
-        } else if (activity.equals("Drill")) {
-            activity = "";
+            menuViewer.loadMenu(SHOW_LESSON_COMPLETE);
+        } else if (activity == Activity.DRILL) {
+            activity = Activity.IDLE;
+            cancelDrillTimer();
             drillViewer.close();
             if (!incorrectAnswers.isEmpty()) {
                 Lesson review = makeReviewSession();
                 menuViewer.createNewDrillCompleteScreen(review, totalDrillFlashcards, totalDrillFlashcards-incorrectAnswers.size());
-                menuViewer.loadMenu("showReviewDrillComplete 0");
+                menuViewer.loadMenu(SHOW_REVIEW_DRILL_COMPLETE);
                 menuViewer.printScore(totalDrillFlashcards-incorrectAnswers.size(), totalDrillFlashcards);
-                nextReviewLessonID++;
             } else {
-                menuViewer.loadMenu("showLessonComplete 0");
+                menuViewer.loadMenu(SHOW_LESSON_COMPLETE);
             }
+        } else if (activity == Activity.PRACTICE) {
+            activity = Activity.IDLE;
+            cancelPracticeTimer();
+            practiceViewer.close();
+            menuViewer.setPracticeScore(practiceCorrect, flashcards.length);
+            menuViewer.loadMenu(SHOW_PRACTICE_COMPLETE);
         }
     }
 
@@ -251,47 +864,25 @@ public class Controller {
         for (int i = 0; i < incorrectAnswers.size(); i++) {
             wrongAnswers[i] = incorrectAnswers.get(i);
         }
-        Lesson review = new Lesson(nextReviewLessonID, "Review Drill", "Review Session", wrongAnswers);
-        model.getLessons().add(review);
+        Lesson review = new Lesson(reviewLessonID, "Review Drill", "Review Session", wrongAnswers);
+        // Only the latest review is reachable, so it replaces the previous one
+        if (reviewLessonID < model.getLessons().size()) {
+            model.getLessons().set(reviewLessonID, review);
+        } else {
+            model.getLessons().add(review);
+        }
         resetProgressbar(review.getLessonSize());
         return review;
     }
 
     /**
-     * Closes the view component with the specified ID.
+     * Closes the menu with the specified ID.
      *
-     * @param viewComponentID the ID of the view component to be closed
-     * @return true if the view component was successfully hidden, false otherwise
+     * @param viewComponentID the ID of the menu to be closed
+     * @return true once the menu is hidden
      */
     public boolean close(int viewComponentID) {
-        ViewComponent obj = ui.getViewComponent(viewComponentID);
-        boolean hidden = closeHelper(obj);
-        return hidden;
-    }
-
-    /**
-     * Recursively hides the given ViewComponent and its child components if all
-     * child components are hidden.
-     *
-     * @param obj the ViewComponent to be checked and potentially hidden
-     * @return true if the given ViewComponent is null or all its child components
-     *         are hidden, false otherwise
-     */
-    private boolean closeHelper(ViewComponent obj) {
-        if (obj == null) {
-            return true;
-        }
-        ViewComponent[] components = obj.getComponents();
-        boolean allHidden = true;
-        for (ViewComponent component : components) {
-            if (!closeHelper(component)) {
-                allHidden = false;
-            }
-        }
-        if (allHidden) {
-            obj.setHidden(true);
-        }
-        return obj.getHidden();
+        return menuViewer.close(ui.getViewComponent(viewComponentID));
     }
 
     /**
@@ -307,9 +898,13 @@ public class Controller {
      * Loads the main menu.
      */
     public void loadMainMenu() {
-        activity = "";
+        cancelFeedback();
+        cancelDrillTimer();
+        cancelPracticeTimer();
+        activity = Activity.IDLE;
         lessonViewer.close();
         drillViewer.close();
+        practiceViewer.close();
         menuViewer.loadMainMenu();
     }
 }
@@ -6,24 +6,23 @@ import View.*;
 /**
  * The DrillViewer class is responsible for managing the visual components of a
  * drill session.
- * It initializes and controls the display of musical elements such as clefs,
- * hands, notes, and a timer.
+ * It initializes and controls the display of musical elements such as the
+ * staff, hands, and a timer.
  * The class interacts with the UI to create and update these components based
  * on the provided flashcards.
- * It also includes a private inner class, DrillTimer, to handle countdown
- * timing for the drill session.
+ * The countdown itself is kept by the Controller on its session clock; this
+ * class only displays the time remaining.
  */
 public class DrillViewer {
     private UI ui;
     private Controller controller;
-    private NoteMapping noteCoords;
-    private ImageComponent clef;
+    private GroupComponent screen;
+    private StaffComponent staff;
     private ImageComponent leftHand;
     private ImageComponent rightHand;
-    private ImageComponent[] notes;
     private TextComponent timer;
-    private DrillTimer drillTimer; // Private timer class for this DrillViewer
     private ButtonComponent backButton;
+    private ButtonComponent replayButton;
     private int[] menuSize;
 
     /**
@@ -33,7 +32,6 @@ public class DrillViewer {
      * @param controller The Controller instance to be used by the DrillViewer.
      */
     public DrillViewer(UI ui, Controller controller) {
-        noteCoords = new NoteMapping();
         this.ui = ui;
         this.controller = controller;
         menuSize = new int[]{0, ui.getScreenWidth(), 0, ui.getScreenHeight()};
@@ -43,58 +41,53 @@ public class DrillViewer {
      * Initializes the drill by setting up the flashcard components.
      */
     public void initializeDrill() {
+        int screenID = ui.createViewComponent("group");
+        screen = (GroupComponent) ui.getViewComponent(screenID);
+        screen.setHidden(true);
+
         // Setting up the flashcard
-        int[] clefCoords = { 170, 0, 0, 0 };
-        int clefID = ui.createViewComponent("image");
-        ui.getViewComponent(clefID).updateXY(clefCoords);
-        clef = (ImageComponent) ui.getViewComponent(clefID);
-        clef.setHidden(true);
+        int[] staffCoords = { 170, 1190, 0, 800 };
+        int staffID = ui.createViewComponent(screenID, "staff", new int[4]);
+        ui.getViewComponent(staffID).updateXY(staffCoords);
+        staff = (StaffComponent) ui.getViewComponent(staffID);
+        staff.setHidden(false);
 
         int[] leftHandCoords = { 155, 0, 600, 0 };
-        int leftHandID = ui.createViewComponent("image");
+        int leftHandID = ui.createViewComponent(screenID, "image", new int[4]);
         ui.getViewComponent(leftHandID).updateXY(leftHandCoords);
         leftHand = (ImageComponent) ui.getViewComponent(leftHandID);
-        leftHand.setHidden(true);
+        leftHand.setHidden(false);
 
         int[] rightHandCoords = { 995, 0, 600, 0 };
-        int rightHandID = ui.createViewComponent("image");
+        int rightHandID = ui.createViewComponent(screenID, "image", new int[4]);
         ui.getViewComponent(rightHandID).updateXY(rightHandCoords);
         rightHand = (ImageComponent) ui.getViewComponent(rightHandID);
-        rightHand.setHidden(true);
+        rightHand.setHidden(false);
 
         int[] timerCoords = { 400, 0, 100, 0 };
-        int timerID = ui.createViewComponent("text");
+        int timerID = ui.createViewComponent(screenID, "text", new int[4]);
         ui.getViewComponent(timerID).updateXY(timerCoords);
         timer = (TextComponent) ui.getViewComponent(timerID);
         timer.setHidden(true);
         
         int[] backButtonCoords = {0, 100, menuSize[2], 100};
-        int backButtonID = ui.createViewComponent("button");
+        int backButtonID = ui.createViewComponent(screenID, "button", new int[4]);
         backButton = (ButtonComponent) ui.getViewComponent(backButtonID);
         backButton.updateXY(backButtonCoords);
-        backButton.setHidden(true);
+        backButton.setHidden(false);
         backButton.setMessage("back");
         backButton.setText("Main Menu");
         controller.addParsable(backButtonID);
 
-        notes = new ImageComponent[4];
-        for (int i = 0; i < notes.length; i++) {
-            notes[i] = createImageComponent(new int[] { 0, 0, 0, 0 });
-        }
-    }
-
-    /**
-     * Creates an ImageComponent with the specified coordinates.
-     *
-     * @param coords The coordinates for the ImageComponent.
-     * @return The created ImageComponent.
-     */
-    private ImageComponent createImageComponent(int[] coords) {
-        int id = ui.createViewComponent("image");
-        ui.getViewComponent(id).updateXY(coords);
-        ImageComponent component = (ImageComponent) ui.getViewComponent(id);
-        component.setHidden(true);
-        return component;
+        //replay button
+        int[] replayButtonCoords = {0, 100, menuSize[2] + 110, 100};
+        int replayButtonID = ui.createViewComponent(screenID, "button", new int[4]);
+        replayButton = (ButtonComponent) ui.getViewComponent(replayButtonID);
+        replayButton.updateXY(replayButtonCoords);
+        replayButton.setHidden(false);
+        replayButton.setMessage("replay");
+        replayButton.setText("Replay");
+        controller.addParsable(replayButtonID);
     }
 
     /**
@@ -117,34 +110,13 @@ public class DrillViewer {
      * @param flashcard The flashcard to be loaded.
      */
     public void loadFlashcard(Flashcard flashcard) {
-        int[] clefCoords = { 170, 1190, 0, 800 };
-        clef.setXY(clefCoords);
-
         int[] leftHandCoords = { 155, 355, 600, 800 };
         leftHand.setXY(leftHandCoords);
 
         int[] rightHandCoords = { 995, 1195, 600, 800 };
         rightHand.setXY(rightHandCoords);
 
-        for (int i = 0; i < notes.length; i++) {
-            notes[i].setHidden(true);
-        }
-
-        for (int i = 0; i < flashcard.getAnswer().length; i++) {
-            int[] noteCoordsArray = noteCoords.getCoordinates(flashcard.getAnswer()[i], flashcard.getClef());
-            notes[i].setXY(noteCoordsArray);
-
-            String path = noteCoords.getImagePath(flashcard.getAnswer()[i], flashcard.getClef());
-            notes[i].changeImage(path);
-
-            notes[i].setHidden(false);
-        }
-        if (flashcard.getClef() == 'T') {
-            clef.changeImage("/Assets/trebleStaff.png");
-        } else if (flashcard.getClef() == 'B') {
-            clef.changeImage("/Assets/bassStaff.png");
-        }
-        clef.setHidden(false);
+        staff.setNotes(flashcard.getClef(), flashcard.getAnswer());
 
         if (flashcard.getHand() == 'L') {
             leftHand.changeImage("/Assets/leftHandFilled.png");
@@ -153,108 +125,64 @@ public class DrillViewer {
             leftHand.changeImage("/Assets/leftHandBlank.png");
             rightHand.changeImage("/Assets/rightHandFilled.png");
         }
-        leftHand.setHidden(false);
-        rightHand.setHidden(false);
-        backButton.setHidden(false);
+        if (screen.getHidden()) {
+            screen.setHidden(false);
+            screen.toFront();
+        }
     }
 
     /**
-     * Closes the DrillViewer by hiding all components.
+     * Closes the DrillViewer by hiding the drill screen's group and the timer,
+     * and clears the held notes.
      */
     public void close() {
-        clef.setHidden(true);
-        leftHand.setHidden(true);
-        rightHand.setHidden(true);
-        backButton.setHidden(true);
-
-        for (ImageComponent note : notes) {
-            note.setHidden(true);
-        }
+        screen.setHidden(true);
+        staff.clearHeldNotes();
+        closeTimer();
     }
 
     /**
-     * Starts the timer with the given start time.
+     * Updates the timer display with the specified time and makes it visible.
      *
-     * @param startTime The initial time for the timer in seconds.
+     * @param time The time remaining in seconds.
      */
-    public void startTimer(int startTime) {
-        if (drillTimer != null) {
-            drillTimer.stop();
-        }
-
-        drillTimer = new DrillTimer(startTime);
-        drillTimer.start();
+    public void showTimer(int time) {
+        timer.setNumber(time);
+        timer.setHidden(false);
     }
 
     /**
-     * Stops the timer.
+     * Hides the timer by setting its visibility to hidden.
      */
-    public void stopTimer() {
-        if (drillTimer != null) {
-            drillTimer.stop();
-        }
-        closeTimer();
+    public void closeTimer() {
+        timer.setHidden(true);
     }
 
     /**
-     * Updates the timer display with the specified time and makes it visible.
+     * Shows a note the user has just pressed on the staff.
      *
-     * @param time The time to be displayed on the timer.
+     * @param note      the MIDI note pressed
+     * @param pressedAt the System.nanoTime() the press arrived at
      */
-    private void loadTimer(int time) {
-        timer.setText(String.valueOf(time));
-        timer.setHidden(false);
+    public void pressNote(int note, long pressedAt) {
+        staff.pressNote(note, pressedAt);
     }
 
     /**
-     * Hides the timer by setting its visibility to hidden.
+     * Removes a note the user has released from the staff.
+     *
+     * @param note the MIDI note released
      */
-    private void closeTimer() {
-        timer.setHidden(true);
+    public void releaseNote(int note) {
+        staff.releaseNote(note);
     }
 
     /**
-     * DrillTimer is a private inner class that extends Thread to create a countdown
-     * timer.
-     * The timer starts from a specified time and decrements every second until it
-     * reaches zero or is stopped.
+     * Returns the time from notes being pressed to the staff showing them.
+     *
+     * @return the histogram of key to draw latencies
      */
-    private class DrillTimer extends Thread {
-        private int time;
-        private volatile boolean running = true;
-
-        /**
-         * Constructs a DrillTimer with the specified start time.
-         *
-         * @param startTime The initial time for the timer in seconds.
-         */
-        public DrillTimer(int startTime) {
-            this.time = startTime;
-        }
-
-        @Override
-        public void run() {
-            while (time > 0 && running) {
-                loadTimer(time); // Update UI with remaining time
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    break;
-                }
-                time--;
-            }
-
-            if (running) {
-                loadTimer(0); // Show "0" when timer ends
-            }
-        }
-
-        /**
-         * Stops the timer.
-         */
-        public void stopTimer() {
-            running = false;
-            this.interrupt();
-        }
+    public Histogram getHeldNoteLatency() {
+        return staff.getHeldNoteLatency();
     }
 }
@@ -0,0 +1,319 @@
+package Controller;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import javax.sound.midi.MidiUnavailableException;
+
+import Model.AudioEngine;
+import Model.Flashcard;
+import Model.VirtualClock;
+import View.ButtonComponent;
+import View.Command;
+import View.Command.Opcode;
+import View.HeadlessViewBackend;
+import View.ViewComponent;
+
+/**
+ * HeadlessRunner plays through the application without a display, MIDI
+ * keyboard or synthesizer. It clicks through the menus, takes turns between
+ * lessons, drills and scrolling practice and answers their flashcards, all on
+ * a virtual clock, so long sessions run as fast as the controller can handle
+ * them. Some drill and practice answers are played wrong or skipped on
+ * purpose so the review screen and every grade are used too.
+ *
+ * Usage: HeadlessRunner [rounds] [recording file]
+ *
+ * With a recording file, every view operation is written to it one per line,
+ * so the output of two builds can be compared with diff.
+ */
+public class HeadlessRunner {
+    private static final int DEFAULT_ROUNDS = 100;
+    private static final int VELOCITY = 64;
+    // Every this many drill cards, the answer is played a semitone off
+    private static final int WRONG_ANSWER_INTERVAL = 3;
+    // Every this many practice cards, the card is let past the play line
+    private static final int SKIPPED_CARD_INTERVAL = 5;
+    // How far the clock moves at a time while waiting for a card to be missed
+    private static final long SKIP_STEP_NANOS = 50000000L;
+    // Gives up on an activity after this many answers, in case it never ends
+    private static final int MAX_ANSWERS_PER_ROUND = 10000;
+    private static final long FEEDBACK_MILLIS = 500;
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final Command BACK = Command.compile("back");
+
+    private final VirtualClock clock;
+    private final HeadlessViewBackend backend;
+    private final Controller controller;
+    private final Session session;
+    private long answers;
+    private long commands;
+
+    /**
+     * Constructs a HeadlessRunner with a controller that has not shown anything
+     * yet.
+     *
+     * @param recording true to record every view operation
+     * @throws MidiUnavailableException never, since no synthesizer is opened
+     */
+    public HeadlessRunner(boolean recording) throws MidiUnavailableException {
+        clock = new VirtualClock();
+        backend = new HeadlessViewBackend(recording);
+        controller = new Controller(backend, clock, new SilentAudioEngine());
+        // Headless runs are for measuring, so their statistics are always printed
+        controller.setPrintStatistics(true);
+        session = controller.getSession();
+        controller.setFeedbackDuration(FEEDBACK_MILLIS);
+        step();
+    }
+
+    /**
+     * Runs the headless session and prints its statistics.
+     *
+     * @param args the number of rounds, then optionally the file to record the
+     *             view operations to
+     * @throws IOException              if the recording cannot be written
+     * @throws MidiUnavailableException never, since no synthesizer is opened
+     */
+    public static void main(String[] args) throws IOException, MidiUnavailableException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        if (rounds < 0) {
+            throw new IllegalArgumentException("Rounds cannot be negative: " + rounds);
+        }
+        String recording = args.length > 1 ? args[1] : null;
+
+        HeadlessRunner runner = new HeadlessRunner(recording != null);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            runner.playRound(round);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("Headless run: %d rounds in %.2f s, %d answers (%.0f/s), %d commands (%.0f/s)",
+                rounds, seconds, runner.answers, runner.answers / seconds, runner.commands, runner.commands / seconds));
+        System.out.println(runner.backend.getStatistics());
+        System.out.println(runner.controller.getParser().getLatencyReport());
+        runner.controller.stop();
+        if (recording != null) {
+            runner.backend.writeOperations(Paths.get(recording));
+            System.out.println("View operations written to " + recording);
+        }
+    }
+
+    /**
+     * Plays one round: picks a unit, plays one of its lessons, its drill or its
+     * scrolling practice in turn, and returns to the main menu.
+     *
+     * @param round the number of the round, used to vary the unit and lesson
+     */
+    public void playRound(int round) {
+        click(Opcode.SHOW_UNIT_SELECTION, 0);
+        // Every fourth round looks past the first page of units
+        if (round % 4 == 3 && findButton(Opcode.PAGE_NEXT, 0) != null) {
+            click(Opcode.PAGE_NEXT, 0);
+        }
+        click(Opcode.SHOW_LESSON_SELECTION, round / 3);
+        if (round % 3 == 0) {
+            click(Opcode.LOAD_LESSON, round / 3);
+            playActivity();
+        } else if (round % 3 == 1) {
+            clickAfterLessons(Opcode.LOAD_DRILL);
+            playActivity();
+        } else {
+            clickAfterLessons(Opcode.LOAD_PRACTICE);
+            playPractice();
+        }
+        if (findButton(Opcode.BACK, 0) != null) {
+            click(Opcode.BACK, 0);
+        } else {
+            dispatch(BACK);
+        }
+    }
+
+    /**
+     * Clicks a lesson selection item listed after the lessons, turning pages
+     * until it is shown.
+     *
+     * @param opcode the opcode of the item's command
+     */
+    private void clickAfterLessons(Opcode opcode) {
+        while (findButton(opcode, 0) == null && findButton(Opcode.PAGE_NEXT, 0) != null) {
+            click(Opcode.PAGE_NEXT, 0);
+        }
+        click(opcode, 0);
+    }
+
+    /**
+     * Plays each scrolling practice card as it reaches the play line, until
+     * the practice is complete. Some cards are played wrong and some are
+     * missed.
+     */
+    private void playPractice() {
+        int cards = 0;
+        while (controller.getActivity() == Activity.PRACTICE && cards < MAX_ANSWERS_PER_ROUND) {
+            long playTime = controller.getPracticePlayTime();
+            if (cards % SKIPPED_CARD_INTERVAL == SKIPPED_CARD_INTERVAL - 1) {
+                // Waits for the card's window to close
+                while (controller.getActivity() == Activity.PRACTICE && controller.getPracticePlayTime() == playTime) {
+                    session.advance(clock, SKIP_STEP_NANOS);
+                }
+                backend.flush();
+            } else {
+                session.advance(clock, Math.max(0, playTime - clock.nanoTime()));
+                playChord(controller.getCurrentFlashcard(), cards % WRONG_ANSWER_INTERVAL == 1);
+                answers++;
+            }
+            cards++;
+        }
+    }
+
+    /**
+     * Answers flashcards until the lesson or drill is complete.
+     */
+    private void playActivity() {
+        int cards = 0;
+        while (controller.getActivity().acceptsInput() && cards < MAX_ANSWERS_PER_ROUND) {
+            boolean wrong = controller.getActivity() == Activity.DRILL && cards % WRONG_ANSWER_INTERVAL == 1;
+            playChord(controller.getCurrentFlashcard(), wrong);
+            answers++;
+            cards++;
+            if (controller.getActivity() == Activity.LESSON_FEEDBACK) {
+                // Waits out the feedback, which moves to the next card
+                session.advance(clock, FEEDBACK_MILLIS * NANOS_PER_MILLI);
+                backend.flush();
+            }
+        }
+    }
+
+    /**
+     * Presses and releases the notes of a flashcard's answer.
+     *
+     * @param flashcard the flashcard to answer
+     * @param wrong     true to play every note a semitone sharp
+     */
+    private void playChord(Flashcard flashcard, boolean wrong) {
+        int[] answer = flashcard.getAnswer();
+        for (int note : answer) {
+            controller.onNoteOn(wrong ? note + 1 : note, VELOCITY);
+        }
+        // Lets the held notes be drawn before they are released
+        step();
+        for (int note : answer) {
+            controller.onNoteOff(wrong ? note + 1 : note);
+        }
+        step();
+    }
+
+    /**
+     * Clicks a shown button with the given opcode.
+     *
+     * @param opcode the opcode of the button's command
+     * @param index  which of the matching buttons to click, wrapping around
+     * @throws IllegalStateException if no shown button has the opcode
+     */
+    private void click(Opcode opcode, int index) {
+        ButtonComponent button = findButton(opcode, index);
+        if (button == null) {
+            throw new IllegalStateException("No " + opcode.getName() + " button is shown");
+        }
+        dispatch(button.getCommand());
+    }
+
+    /**
+     * Dispatches a command on the session, as the command parser does for a
+     * click, and lets the session and view settle. The latency is recorded in
+     * the parser's report like a real click.
+     *
+     * @param command the command to dispatch
+     */
+    private void dispatch(Command command) {
+        CommandParser parser = controller.getParser();
+        long clickTime = System.nanoTime();
+        session.execute(() -> {
+            parser.dispatch(command);
+            parser.recordLatency(command.getOpcode(), System.nanoTime() - clickTime);
+        });
+        commands++;
+        step();
+    }
+
+    /**
+     * Finds a shown button with the given opcode. A button is shown if it and
+     * every group it is in are not hidden.
+     *
+     * @param opcode the opcode of the button's command
+     * @param index  which of the matching buttons to return, wrapping around
+     * @return the button, or null if no shown button has the opcode
+     */
+    private ButtonComponent findButton(Opcode opcode, int index) {
+        ViewComponent[] components = controller.getUI().getViewComponents();
+        int matches = 0;
+        for (ViewComponent component : components) {
+            if (isShownButton(component, opcode)) {
+                matches++;
+            }
+        }
+        if (matches == 0) {
+            return null;
+        }
+        int target = index % matches;
+        for (ViewComponent component : components) {
+            if (isShownButton(component, opcode) && target-- == 0) {
+                return (ButtonComponent) component;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a component is a shown button with the given opcode.
+     *
+     * @param component the component to check, may be null
+     * @param opcode    the opcode of the button's command
+     * @return true if the component is a shown button with the opcode
+     */
+    private static boolean isShownButton(ViewComponent component, Opcode opcode) {
+        if (!(component instanceof ButtonComponent)) {
+            return false;
+        }
+        Command command = ((ButtonComponent) component).getCommand();
+        if (command == null || command.getOpcode() != opcode) {
+            return false;
+        }
+        for (ViewComponent shown = component; shown != null; shown = shown.getParent()) {
+            if (shown.getHidden()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the session's queued events and due timers, then the render batches
+     * they posted.
+     */
+    private void step() {
+        session.runPending();
+        backend.flush();
+    }
+
+    /**
+     * An AudioEngine that plays nothing.
+     */
+    private static class SilentAudioEngine implements AudioEngine {
+        @Override
+        public void noteOn(int note, int velocity) {
+        }
+
+        @Override
+        public void noteOff(int note) {
+        }
+
+        @Override
+        public void setProgram(int program) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
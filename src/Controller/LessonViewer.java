@@ -7,23 +7,26 @@ import javafx.scene.paint.Color;
 /**
  * The LessonViewer class is responsible for managing the visual components of a
  * lesson.
- * It initializes, loads, and updates various image components such as clef,
- * hands, notes, and feedback.
+ * It initializes, loads, and updates various components such as the staff,
+ * hands and feedback.
  * The class interacts with the UI to create and manipulate these components
  * based on the data provided by flashcards.
  */
 public class LessonViewer {
+    // Most notes of the user's input shown next to the flashcard
+    public static final int MAX_INPUT_NOTES = 4;
+
     private UI ui;
     private Controller controller;
-    private NoteMapping noteCoords;
-    private ImageComponent clef;
+    private GroupComponent screen;
+    private StaffComponent staff;
     private ImageComponent leftHand;
     private ImageComponent rightHand;
-    private ImageComponent[] notes;
     private ImageComponent feedback;
     private RectangleComponent progressbarBackground;
     private RectangleComponent progressbar;
     private ButtonComponent backButton;
+    private ButtonComponent replayButton;
     
     //change to appropriate value
     private int[] menuSize;
@@ -36,7 +39,6 @@ public class LessonViewer {
      * @param controller the Controller instance to be associated with this LessonViewer
      */
     public LessonViewer(UI ui, Controller controller) {
-        noteCoords = new NoteMapping();
         this.ui = ui;
         this.controller = controller;
         menuSize = new int[]{0, ui.getScreenWidth(), 0, ui.getScreenHeight()};
@@ -44,81 +46,77 @@ public class LessonViewer {
     }
 
     /**
-     * Initializes the lesson by setting up various image components such as clef,
-     * left hand, right hand, feedback, and notes. Each component is created,
-     * positioned, and initially hidden.
+     * Initializes the lesson by setting up various components such as the staff,
+     * left hand, right hand and feedback. Each component is created in the
+     * lesson screen's group and positioned; the group is hidden until a
+     * flashcard is loaded.
      */
     public void initializeLesson() {
+        int screenID = ui.createViewComponent("group");
+        screen = (GroupComponent) ui.getViewComponent(screenID);
+        screen.setHidden(true);
+
         // Setting up the flashcard
 
-        int[] clefCoords = { 170, 0, 0, 0 };
-        int clefID = ui.createViewComponent("image");
-        ui.getViewComponent(clefID).updateXY(clefCoords);
-        clef = (ImageComponent) ui.getViewComponent(clefID);
-        clef.setHidden(true);
+        int[] staffCoords = { 170, 1190, 0, 800 };
+        int staffID = ui.createViewComponent(screenID, "staff", new int[4]);
+        ui.getViewComponent(staffID).updateXY(staffCoords);
+        staff = (StaffComponent) ui.getViewComponent(staffID);
+        staff.setHidden(false);
 
         int[] leftHandCoords = { 155, 0, 600, 0 };
-        int leftHandID = ui.createViewComponent("image");
+        int leftHandID = ui.createViewComponent(screenID, "image", new int[4]);
         ui.getViewComponent(leftHandID).updateXY(leftHandCoords);
         leftHand = (ImageComponent) ui.getViewComponent(leftHandID);
-        leftHand.setHidden(true);
+        leftHand.setHidden(false);
 
         int[] rightHandCoords = { 995, 0, 600, 0 };
-        int rightHandID = ui.createViewComponent("image");
+        int rightHandID = ui.createViewComponent(screenID, "image", new int[4]);
         ui.getViewComponent(rightHandID).updateXY(rightHandCoords);
         rightHand = (ImageComponent) ui.getViewComponent(rightHandID);
-        rightHand.setHidden(true);
+        rightHand.setHidden(false);
 
         int[] feedbackCoords = { 1050, 0, 300, 0 };
-        int feedbackID = ui.createViewComponent("image");
+        int feedbackID = ui.createViewComponent(screenID, "image", new int[4]);
         ui.getViewComponent(feedbackID).updateXY(feedbackCoords);
         feedback = (ImageComponent) ui.getViewComponent(feedbackID);
         feedback.setHidden(true);
         
         //progressbar background
         int[] progressbarBackgroundCoords = {menuSize[0]+100,menuSize[1]-200,menuSize[2]-100,100};
-        int progressbarBackgroundID = ui.createViewComponent("rectangle");
+        int progressbarBackgroundID = ui.createViewComponent(screenID, "rectangle", new int[4]);
         ui.getViewComponent(progressbarBackgroundID).updateXY(progressbarBackgroundCoords);
         progressbarBackground = (RectangleComponent) ui.getViewComponent(progressbarBackgroundID);
         progressbarBackground.setColor(Color.GREY);
-        progressbarBackground.setHidden(true);
+        progressbarBackground.setHidden(false);
         
         //progressbar
         int[] progressbarCoords = {menuSize[0]+100,0,menuSize[2]-100,100};
-        int progressbarID = ui.createViewComponent("rectangle");
+        int progressbarID = ui.createViewComponent(screenID, "rectangle", new int[4]);
         ui.getViewComponent(progressbarID).updateXY(progressbarCoords);
         progressbar = (RectangleComponent) ui.getViewComponent(progressbarID);
         progressbar.setColor(Color.GREEN);
-        progressbar.setHidden(true);
+        progressbar.setHidden(false);
         
         //back button
         int[] backButtonCoords = {0, 100, menuSize[2], 100};
-        int backButtonID = ui.createViewComponent("button");
+        int backButtonID = ui.createViewComponent(screenID, "button", new int[4]);
         backButton = (ButtonComponent) ui.getViewComponent(backButtonID);
         backButton.updateXY(backButtonCoords);
-        backButton.setHidden(true);
+        backButton.setHidden(false);
         backButton.setMessage("back");
         backButton.setText("Main Menu");
         controller.addParsable(backButtonID);
-        
-        notes = new ImageComponent[8];
-        for (int i = 0; i < notes.length; i++) {
-            notes[i] = createImageComponent(new int[] { 0, 0, 0, 0 });
-        }
-    }
 
-    /**
-     * Creates an ImageComponent with the specified coordinates.
-     *
-     * @param coords the coordinates for the ImageComponent
-     * @return the created ImageComponent
-     */
-    private ImageComponent createImageComponent(int[] coords) {
-        int id = ui.createViewComponent("image");
-        ui.getViewComponent(id).updateXY(coords);
-        ImageComponent component = (ImageComponent) ui.getViewComponent(id);
-        component.setHidden(true);
-        return component;
+        //replay button
+        int[] replayButtonCoords = {0, 100, menuSize[2] + 110, 100};
+        int replayButtonID = ui.createViewComponent(screenID, "button", new int[4]);
+        replayButton = (ButtonComponent) ui.getViewComponent(replayButtonID);
+        replayButton.updateXY(replayButtonCoords);
+        replayButton.setHidden(false);
+        replayButton.setMessage("replay");
+        replayButton.setText("Replay");
+        controller.addParsable(replayButtonID);
     }
 
     /**
@@ -147,34 +145,13 @@ public class LessonViewer {
         feedback.setXY(feedbackCoords);
         feedback.setHidden(true);
 
-        int[] clefCoords = { 170, 1190, 0, 800 };
-        clef.setXY(clefCoords);
-
         int[] leftHandCoords = { 155, 355, 600, 800 };
         leftHand.setXY(leftHandCoords);
 
         int[] rightHandCoords = { 995, 1195, 600, 800 };
         rightHand.setXY(rightHandCoords);
 
-        for (int i = 0; i < notes.length; i++) {
-            notes[i].setHidden(true);
-        }
-
-        for (int i = 0; i < flashcard.getAnswer().length; i++) {
-            int[] noteCoordsArray = noteCoords.getCoordinates(flashcard.getAnswer()[i], flashcard.getClef());
-            notes[i].setXY(noteCoordsArray);
-
-            String path = noteCoords.getImagePath(flashcard.getAnswer()[i], flashcard.getClef());
-            notes[i].changeImage(path);
-
-            notes[i].setHidden(false);
-        }
-        if (flashcard.getClef() == 'T') {
-            clef.changeImage("/Assets/trebleStaff.png");
-        } else if (flashcard.getClef() == 'B') {
-            clef.changeImage("/Assets/bassStaff.png");
-        }
-        clef.setHidden(false);
+        staff.setNotes(flashcard.getClef(), flashcard.getAnswer());
 
         if (flashcard.getHand() == 'L') {
             leftHand.changeImage("/Assets/leftHandFilled.png");
@@ -183,11 +160,10 @@ public class LessonViewer {
             leftHand.changeImage("/Assets/leftHandBlank.png");
             rightHand.changeImage("/Assets/rightHandFilled.png");
         }
-        leftHand.setHidden(false);
-        rightHand.setHidden(false);
-        progressbarBackground.setHidden(false);
-        progressbar.setHidden(false);
-        backButton.setHidden(false);
+        if (screen.getHidden()) {
+            screen.setHidden(false);
+            screen.toFront();
+        }
     }
 
     /**
@@ -218,22 +194,13 @@ public class LessonViewer {
     }
 
     /**
-     * Closes the lesson viewer by hiding all visual components.
-     * This method hides the feedback, clef, left hand, and right hand components.
-     * Additionally, it iterates through all note components and hides each one.
+     * Closes the lesson viewer by hiding the lesson screen's group. The
+     * feedback, overlay and held notes are cleared for the next lesson.
      */
     public void close() {
-        feedback.setHidden(true);
-        clef.setHidden(true);
-        leftHand.setHidden(true);
-        rightHand.setHidden(true);
-        progressbarBackground.setHidden(true);
-        progressbar.setHidden(true);
-        backButton.setHidden(true);
-
-        for (ImageComponent note : notes) {
-            note.setHidden(true);
-        }
+        screen.setHidden(true);
+        staff.clearHeldNotes();
+        closeFeedback();
     }
 
     /**
@@ -247,18 +214,7 @@ public class LessonViewer {
      *                  (true) or incorrect (false).
      */
     public void loadFeedback(Flashcard flashcard, int[] input, Boolean answer) {
-        if (input.length <= 4) {
-            for (int i = 0; i < input.length; i++) {
-                int[] noteCoordsArray = noteCoords.getCoordinates(input[i], flashcard.getClef());
-                if (noteCoordsArray != null) {
-                    notes[i + 4].updateXY(new int[] { noteCoordsArray[0] + 200, noteCoordsArray[1] + 200,
-                            noteCoordsArray[2], noteCoordsArray[3] });
-                    String path = noteCoords.getImagePath(input[i], flashcard.getClef());
-                    notes[i + 4].changeImage(path);
-                    notes[i + 4].setHidden(false);
-                }
-            }
-        }
+        loadInputNotes(flashcard, input);
         if (answer) {
             increaseProgressbar();
             feedback.changeImage("/Assets/check.png");
@@ -269,6 +225,30 @@ public class LessonViewer {
         feedback.setHidden(false);
     }
 
+    /**
+     * Overlays the notes from a replay on the staff next to the flashcard.
+     *
+     * @param flashcard   the flashcard currently shown.
+     * @param recentNotes the notes played during the replayed window.
+     */
+    public void loadReplay(Flashcard flashcard, int[] recentNotes) {
+        staff.clearOverlayNotes();
+        loadInputNotes(flashcard, recentNotes);
+    }
+
+    /**
+     * Shows the given input notes on the staff, offset to the right of the
+     * answer. Inputs with more than MAX_INPUT_NOTES notes are not shown.
+     *
+     * @param flashcard the flashcard whose clef the notes are drawn in.
+     * @param input     the notes to show.
+     */
+    private void loadInputNotes(Flashcard flashcard, int[] input) {
+        if (input.length <= MAX_INPUT_NOTES) {
+            staff.setOverlayNotes(input);
+        }
+    }
+
     /**
      * Closes the feedback section by hiding the feedback element and all notes
      * starting from the fourth index.
@@ -279,8 +259,34 @@ public class LessonViewer {
      */
     public void closeFeedback() {
         feedback.setHidden(true);
-        for (int i = 4; i < notes.length; i++) {
-            notes[i].setHidden(true);
-        }
+        staff.clearOverlayNotes();
+    }
+
+    /**
+     * Shows a note the user has just pressed on the staff.
+     *
+     * @param note      the MIDI note pressed
+     * @param pressedAt the System.nanoTime() the press arrived at
+     */
+    public void pressNote(int note, long pressedAt) {
+        staff.pressNote(note, pressedAt);
+    }
+
+    /**
+     * Removes a note the user has released from the staff.
+     *
+     * @param note the MIDI note released
+     */
+    public void releaseNote(int note) {
+        staff.releaseNote(note);
+    }
+
+    /**
+     * Returns the time from notes being pressed to the staff showing them.
+     *
+     * @return the histogram of key to draw latencies
+     */
+    public Histogram getHeldNoteLatency() {
+        return staff.getHeldNoteLatency();
     }
 }
@@ -8,32 +8,41 @@ import java.util.HashSet;
 import java.util.HashMap;
 import java.util.ArrayList;
 
-import javafx.application.Platform;
-import javafx.scene.text.Font;
-
 /**
  * The MenuViewer class is responsible for managing and displaying menus in the
  * UI.
- * It initializes menus for units and lessons, handles menu loading and closing,
- * and manages the visibility of menu components.
+ * It builds menus for units and lessons when they are first needed, handles
+ * menu loading and closing, and manages the visibility of menu components.
  */
 public class MenuViewer {
     private Controller controller;
     private UI ui;
-    private HashMap<Integer, ViewComponent> lessonSelection;
-    private RectangleComponent unitSelection;
+    private PagedSelection lessonSelection;
+    private PagedSelection unitSelection;
+    private int lessonSelectionUnitID;
     private ViewComponent previousMenu;
-    private RectangleComponent homePage;
+    private GroupComponent homePage;
     private ImageComponent homePageImage;
-    private RectangleComponent lessonComplete;
-    private RectangleComponent drillComplete;
-    private RectangleComponent reviewDrillComplete;
+    private ButtonComponent startButton;
+    private Command startCommand;
+    private GroupComponent lessonComplete;
+    private GroupComponent drillComplete;
+    private GroupComponent reviewDrillComplete;
+    private GroupComponent practiceComplete;
+    private TextComponent practiceScore;
     private int drillCompleteID;
+    private ArrayList<Unit> units;
+    private HashMap<Integer, Unit> unitsByID;
+
+    // Instrumentation for menus built after startup
+    private int menusBuilt;
+    private long buildNanos;
+    private long maxBuildNanos;
     ButtonComponent button;
     TextComponent text;
     private final static int PADDING = 50;
     private final static int FILLER = 0;
-    private final static Font FONT = new Font(32);
+    private final static int FONT_SIZE = 32;
 
     /**
      * Constructs a MenuViewer object.
@@ -45,119 +54,182 @@ public class MenuViewer {
     public MenuViewer(Controller controller, UI ui, ArrayList<Unit> units) {
         this.controller = controller;
         this.ui = ui;
-        lessonSelection = new HashMap<>();
         initializeMenus(units);
     }
 
     /**
-     * This method sets up the unit selection menu and creates buttons
-     * for each unit.
-     * It also creates menus for each unit's lessons and drills,
-     * setting up buttons for each lesson.
-     * The method handles the layout and positioning of these buttons
-     * and menus on the screen.
-     * 
-     * The method performs the following steps:
-     * 1. Retrieves the screen width and height from the UI.
-     * 2. Sets up the unit selection menu with buttons for each unit.
-     * 3. For each unit, creates a menu for its lessons and drills, and
-     * sets up buttons for each lesson.
-     * 4. Adds the created buttons and menus to the UI and controller.
-     * 5. Hides the buttons and menus initially, and sets up their
-     * positions on the screen.
-     * 6. Displays the unit selection menu.
-     * 
+     * Builds the home page, which is shown first. Every other menu is built the
+     * first time it is navigated to, or earlier by prebuildNext() when the
+     * session is idle, so startup does not depend on the size of the
+     * curriculum.
+     *
      * @param units An ArrayList of Unit objects representing the units to be
      *              displayed.
      */
     public void initializeMenus(ArrayList<Unit> units) {
-        int screenWidth = ui.getScreenWidth();
-        int screenHeight = ui.getScreenHeight();
-        // Setup the menus:
-
-        // Unit selection:
-        int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
-        int unitSelectionID = ui.createViewComponent("rectangle");
-        unitSelection = (RectangleComponent) ui.getViewComponent(unitSelectionID);
-        unitSelection.updateXY(screenSize);
-        int numUnits = units.size();
-        int unitButtonWidth = screenWidth / numUnits - (PADDING + PADDING);
-        int[] unitXYCoords = new int[] { PADDING, unitButtonWidth, 300, 100 };
-        int buttonID;
-        int menuID;
-        RectangleComponent currMenu;
-        int lessonButtonWidth;
-        int[] lessonXYCoords;
-
+        long start = System.nanoTime();
+        this.units = new ArrayList<>();
+        unitsByID = new HashMap<>();
         for (Unit unit : units) {
             if (unit != null) {
-                buttonID = ui.createViewComponent(unitSelectionID, "button", unitXYCoords);
-                button = (ButtonComponent) ui.getViewComponent(buttonID);
-                button.setMessage("showLessonSelection " + unit.getUnitID());
-                button.setText(unit.getName());
-                controller.addParsable(buttonID);
-                unitXYCoords[0] += unitButtonWidth + PADDING + PADDING;
-                button.setHidden(true);
-
-                menuID = ui.createViewComponent("rectangle");
-                currMenu = (RectangleComponent) ui.getViewComponent(menuID);
-                currMenu.updateXY(screenSize);
-                lessonButtonWidth = screenWidth / (unit.getNumLessons() + unit.getNumDrills()) - (PADDING + PADDING);
-                lessonXYCoords = new int[] { PADDING, lessonButtonWidth, 300, 100 };
-                Lesson[] lessons = unit.getLessons();
-
-                for (int i = 0; i < unit.getNumLessons(); i++) {
-                    buttonID = ui.createViewComponent(menuID, "button", lessonXYCoords);
-                    button = (ButtonComponent) ui.getViewComponent(buttonID);
-                    button.setMessage("loadLesson " + lessons[i].getLessonID() + " " + menuID);
-                    button.setText(lessons[i].getName());
-                    controller.addParsable(buttonID);
-                    lessonXYCoords[0] += lessonButtonWidth + PADDING + PADDING;
-                    button.getObject().toBack();
-                    button.setHidden(true);
-                }
-
-                buttonID = ui.createViewComponent(menuID, "button", lessonXYCoords);
-                button = (ButtonComponent) ui.getViewComponent(buttonID);
-                button.setMessage("loadDrill " + unit.getDrills()[0].getLessonID() + " " + menuID);
-                button.setText(unit.getDrills()[0].getName());
-                controller.addParsable(buttonID);
-                lessonXYCoords[0] += lessonButtonWidth + PADDING + PADDING;
-                button.getObject().toBack();
-                button.setHidden(true);
-
-                lessonSelection.put(unit.getUnitID(), currMenu);
-                currMenu.setHidden(false);
-                currMenu.getObject().toFront();
-                close(currMenu);
+                this.units.add(unit);
+                unitsByID.put(unit.getUnitID(), unit);
             }
         }
+        buildHomePage();
+        loadMainMenu();
+        if (Boolean.getBoolean("pitchperfect.stats")) {
+            System.out.println(String.format("Home page ready in %.1f ms, other menus deferred",
+                    (System.nanoTime() - start) / 1e6));
+        }
+    }
+
+    /**
+     * Builds the home page with its start button.
+     */
+    private void buildHomePage() {
+        int screenWidth = ui.getScreenWidth();
+        int screenHeight = ui.getScreenHeight();
+        int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
 
-        // Home page
-        int homePageID = ui.createViewComponent("rectangle");
-        homePage = (RectangleComponent) ui.getViewComponent(homePageID);
+        int homePageID = ui.createViewComponent("group");
+        homePage = (GroupComponent) ui.getViewComponent(homePageID);
         homePage.updateXY(screenSize);
-        
+
         int homePageImageID = ui.createViewComponent(homePageID, "image", screenSize);
         homePageImage = (ImageComponent) ui.getViewComponent(homePageImageID);
         homePageImage.changeImage("/Assets/homePage.png");
         homePageImage.updateXY(screenSize);
-        
+
         int[] startButtonXYCoords = new int[] { 600, 150, 450, 50 };
-        
-        buttonID = ui.createViewComponent(homePageID, "button", startButtonXYCoords);
-        button = (ButtonComponent) ui.getViewComponent(buttonID);
-        button.setMessage("showUnitSelection " + unitSelectionID);
-        button.setText("Start");
+
+        int buttonID = ui.createViewComponent(homePageID, "button", startButtonXYCoords);
+        startButton = (ButtonComponent) ui.getViewComponent(buttonID);
+        // The start command is held back until the assets are preloaded
+        startCommand = Command.compile("showUnitSelection 0");
+        startButton.setText("Loading");
         controller.addParsable(buttonID);
-        button.setHidden(true);
-        homePage.setHidden(true);
-        homePage.getObject().toFront();
-        close(homePage);
+        finishMenu(homePage);
+    }
+
+    /**
+     * Returns the unit selection menu, building it on first use. Units are
+     * shown a page at a time.
+     *
+     * @return the unit selection menu
+     */
+    private PagedSelection getUnitSelection() {
+        if (unitSelection != null) {
+            return unitSelection;
+        }
+        long start = System.nanoTime();
+        unitSelection = new PagedSelection(controller, ui);
+        String[] labels = new String[units.size()];
+        Command[] commands = new Command[units.size()];
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            labels[i] = unit.getName();
+            commands[i] = Command.compile("showLessonSelection " + unit.getUnitID());
+        }
+        unitSelection.setItems(labels, commands);
+        recordBuild(start);
+        return unitSelection;
+    }
+
+    /**
+     * Returns the lesson selection menu showing a unit's lessons and drill. One
+     * menu is shared by every unit and rebound to the unit being shown.
+     *
+     * @param unitID the ID of the unit
+     * @return the lesson selection menu
+     * @throws IllegalArgumentException if there is no unit with the ID
+     */
+    private ViewComponent getLessonSelection(int unitID) {
+        Unit unit = unitsByID.get(unitID);
+        if (unit == null) {
+            throw new IllegalArgumentException("Not a valid menu");
+        }
+        PagedSelection menu = getLessonSelection();
+        if (lessonSelectionUnitID != unitID) {
+            bindLessonSelection(unit);
+        }
+        return menu.getGroup();
+    }
+
+    /**
+     * Returns the shared lesson selection menu, building it on first use.
+     *
+     * @return the lesson selection menu
+     */
+    private PagedSelection getLessonSelection() {
+        if (lessonSelection == null) {
+            long start = System.nanoTime();
+            lessonSelection = new PagedSelection(controller, ui);
+            lessonSelectionUnitID = -1;
+            recordBuild(start);
+        }
+        return lessonSelection;
+    }
 
-        // Screen for Lesson Completion
-        int lessonCompleteID = ui.createViewComponent("rectangle");
-        lessonComplete = (RectangleComponent) ui.getViewComponent(lessonCompleteID);
+    /**
+     * Binds the lesson selection menu to a unit's lessons followed by its
+     * drills and the unit's scrolling practice.
+     *
+     * @param unit the unit
+     */
+    private void bindLessonSelection(Unit unit) {
+        int menuID = lessonSelection.getGroup().getID();
+        int numItems = unit.getNumLessons() + unit.getNumDrills() + 1;
+        String[] labels = new String[numItems];
+        Command[] commands = new Command[numItems];
+        Lesson[] lessons = unit.getLessons();
+        for (int i = 0; i < unit.getNumLessons(); i++) {
+            labels[i] = lessons[i].getName();
+            commands[i] = Command.compile("loadLesson " + lessons[i].getLessonID() + " " + menuID);
+        }
+        Drill[] drills = unit.getDrills();
+        for (int i = 0; i < unit.getNumDrills(); i++) {
+            labels[unit.getNumLessons() + i] = drills[i].getName();
+            commands[unit.getNumLessons() + i] = Command.compile("loadDrill " + drills[i].getLessonID() + " " + menuID);
+        }
+        labels[numItems - 1] = "Scrolling Practice";
+        commands[numItems - 1] = Command.compile("loadPractice " + unit.getUnitID() + " " + menuID);
+        lessonSelection.setItems(labels, commands);
+        lessonSelectionUnitID = unit.getUnitID();
+    }
+
+    /**
+     * Turns the page of a paged menu.
+     *
+     * @param menuID the ID of the menu's group
+     * @param delta  the number of pages to move, negative to move back
+     * @throws IllegalArgumentException if the menu is not paged
+     */
+    public void turnPage(int menuID, int delta) {
+        if (unitSelection != null && unitSelection.getGroup().getID() == menuID) {
+            unitSelection.turnPage(delta);
+        } else if (lessonSelection != null && lessonSelection.getGroup().getID() == menuID) {
+            lessonSelection.turnPage(delta);
+        } else {
+            throw new IllegalArgumentException("Not a paged menu: " + menuID);
+        }
+    }
+
+    /**
+     * Returns the lesson complete screen, building it on first use.
+     *
+     * @return the lesson complete screen
+     */
+    private GroupComponent getLessonComplete() {
+        if (lessonComplete != null) {
+            return lessonComplete;
+        }
+        long start = System.nanoTime();
+        int screenWidth = ui.getScreenWidth();
+        int screenHeight = ui.getScreenHeight();
+        int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
+        int lessonCompleteID = ui.createViewComponent("group");
+        lessonComplete = (GroupComponent) ui.getViewComponent(lessonCompleteID);
         lessonComplete.updateXY(screenSize);
         int returnButtonWidth = screenWidth - (PADDING + PADDING);
         int[] returnXYCoords = new int[] { PADDING, returnButtonWidth, 300, 100 };
@@ -165,129 +237,282 @@ public class MenuViewer {
         int lessonCompleteTextID = ui.createViewComponent(lessonCompleteID, "text", lessonCompleteTextXYCoords);
         TextComponent lessonCompleteText = (TextComponent) ui.getViewComponent(lessonCompleteTextID);
         lessonCompleteText.setText("Lesson Complete");
-        lessonCompleteText.setFont(FONT);
+        lessonCompleteText.setFontSize(FONT_SIZE);
         lessonCompleteText.setXY(lessonCompleteTextXYCoords);
-        lessonCompleteText.setHidden(true);
-        buttonID = ui.createViewComponent(lessonCompleteID, "button", returnXYCoords);
+        int buttonID = ui.createViewComponent(lessonCompleteID, "button", returnXYCoords);
         button = (ButtonComponent) ui.getViewComponent(buttonID);
         button.setMessage("back");
         button.setText("Return to Menu");
         controller.addParsable(buttonID);
-        button.setHidden(true);
-        lessonComplete.setHidden(false);
-        lessonComplete.getObject().toFront();
-        close(lessonComplete);
+        finishMenu(lessonComplete);
+        recordBuild(start);
+        return lessonComplete;
+    }
 
-        // Screen for Drill Completion without review
-        int drillCompleteID = ui.createViewComponent("rectangle");
-        drillComplete = (RectangleComponent) ui.getViewComponent(drillCompleteID);
+    /**
+     * Returns the screen for a drill completed without mistakes, building it on
+     * first use.
+     *
+     * @return the drill complete screen
+     */
+    private GroupComponent getDrillComplete() {
+        if (drillComplete != null) {
+            return drillComplete;
+        }
+        long start = System.nanoTime();
+        int screenWidth = ui.getScreenWidth();
+        int screenHeight = ui.getScreenHeight();
+        int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
+        int returnButtonWidth = screenWidth - (PADDING + PADDING);
+        int[] returnXYCoords = new int[] { PADDING, returnButtonWidth, 300, 100 };
+        drillCompleteID = ui.createViewComponent("group");
+        drillComplete = (GroupComponent) ui.getViewComponent(drillCompleteID);
         drillComplete.updateXY(screenSize);
         int[] drillCompleteTextXYCoords = new int[] {600, 900, 50, 75};
         int drillCompleteTextID = ui.createViewComponent(drillCompleteID, "text", drillCompleteTextXYCoords);
         text = (TextComponent) ui.getViewComponent(drillCompleteTextID);
         text.setText("Drill Complete");
-        text.setFont(FONT);
+        text.setFontSize(FONT_SIZE);
         text.setXY(drillCompleteTextXYCoords);
-        text.setHidden(true);
 
         int[] drillCompleteScoreXYCoords = new int[] {450, 950, 100, 125};
         int drillCompleteScoreID = ui.createViewComponent(drillCompleteID, "text", drillCompleteScoreXYCoords);
         text = (TextComponent) ui.getViewComponent(drillCompleteScoreID);
         text.setText("You answered everything correctly!");
-        text.setFont(FONT);
+        text.setFontSize(FONT_SIZE);
         text.setXY(drillCompleteScoreXYCoords);
-        text.setHidden(true);
 
-        buttonID = ui.createViewComponent(drillCompleteID, "button", returnXYCoords);
+        int buttonID = ui.createViewComponent(drillCompleteID, "button", returnXYCoords);
         button = (ButtonComponent) ui.getViewComponent(buttonID);
         button.setMessage("back");
         button.setText("Return to Menu");
         controller.addParsable(buttonID);
-        button.setHidden(true);
 
-        drillComplete.setHidden(false);
-        drillComplete.getObject().toFront();
-        close(drillComplete);
+        finishMenu(drillComplete);
+        recordBuild(start);
+        return drillComplete;
+    }
 
-        System.out.println("Menu creation complete. loading unit selection");
-        loadMainMenu();
-        System.out.println("Unit selection displayed");
+    /**
+     * Returns the screen shown when scrolling practice ends, building it on
+     * first use. Its score is set by setPracticeScore.
+     *
+     * @return the practice complete screen
+     */
+    private GroupComponent getPracticeComplete() {
+        if (practiceComplete != null) {
+            return practiceComplete;
+        }
+        long start = System.nanoTime();
+        int screenWidth = ui.getScreenWidth();
+        int screenHeight = ui.getScreenHeight();
+        int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
+        int returnButtonWidth = screenWidth - (PADDING + PADDING);
+        int[] returnXYCoords = new int[] { PADDING, returnButtonWidth, 300, 100 };
+        int practiceCompleteID = ui.createViewComponent("group");
+        practiceComplete = (GroupComponent) ui.getViewComponent(practiceCompleteID);
+        practiceComplete.updateXY(screenSize);
+        int[] practiceCompleteTextXYCoords = new int[] {550, 900, 50, 75};
+        int practiceCompleteTextID = ui.createViewComponent(practiceCompleteID, "text", practiceCompleteTextXYCoords);
+        text = (TextComponent) ui.getViewComponent(practiceCompleteTextID);
+        text.setText("Practice Complete");
+        text.setFontSize(FONT_SIZE);
+        text.setXY(practiceCompleteTextXYCoords);
+
+        int[] practiceScoreXYCoords = new int[] {600, 900, 100, 125};
+        int practiceScoreID = ui.createViewComponent(practiceCompleteID, "text", practiceScoreXYCoords);
+        practiceScore = (TextComponent) ui.getViewComponent(practiceScoreID);
+        practiceScore.setFontSize(FONT_SIZE);
+        practiceScore.setXY(practiceScoreXYCoords);
+
+        int buttonID = ui.createViewComponent(practiceCompleteID, "button", returnXYCoords);
+        button = (ButtonComponent) ui.getViewComponent(buttonID);
+        button.setMessage("back");
+        button.setText("Return to Menu");
+        controller.addParsable(buttonID);
+
+        finishMenu(practiceComplete);
+        recordBuild(start);
+        return practiceComplete;
+    }
+
+    /**
+     * Sets the score shown on the practice complete screen.
+     *
+     * @param numberCorrectAnswers the number of cards answered correctly
+     * @param totalCards           the number of cards in the practice
+     */
+    public void setPracticeScore(int numberCorrectAnswers, int totalCards) {
+        getPracticeComplete();
+        practiceScore.setText("Score: " + numberCorrectAnswers + "/" + totalCards);
+    }
+
+    /**
+     * Builds the next menu that has not been built yet, so it is ready before
+     * it is first navigated to. Meant to be called in idle time, one menu per
+     * call.
+     *
+     * @return true if a menu was built, false if every menu is already built
+     */
+    public boolean prebuildNext() {
+        if (unitSelection == null) {
+            getUnitSelection();
+            return true;
+        }
+        if (lessonSelection == null) {
+            getLessonSelection();
+            return true;
+        }
+        if (lessonComplete == null) {
+            getLessonComplete();
+            return true;
+        }
+        if (drillComplete == null) {
+            getDrillComplete();
+            return true;
+        }
+        if (practiceComplete == null) {
+            getPracticeComplete();
+            return true;
+        }
+        return false;
     }
 
     /**
-     * Brings a ViewComponent's children to the front using breadth-first search.
+     * Returns a summary of how many menus were built after startup and how long
+     * they took.
      *
-     * @param menuID the ID of the menu to be loaded
+     * @return the statistics as a String
      */
-    public void loadMenu(String menuID) {
+    public String getBuildStatistics() {
+        double average = menusBuilt == 0 ? 0 : buildNanos / 1e3 / menusBuilt;
+        return String.format("Menus: %d built after startup, %.1f us average / %.1f us max build time",
+                menusBuilt, average, maxBuildNanos / 1e3);
+    }
+
+    /**
+     * Returns a summary of the paged selection menus that have been built.
+     *
+     * @return the statistics as a String
+     */
+    public String getSelectionStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        if (unitSelection != null) {
+            statistics.append(unitSelection.getStatistics("Unit selection"));
+        }
+        if (lessonSelection != null) {
+            if (statistics.length() > 0) {
+                statistics.append(System.lineSeparator());
+            }
+            statistics.append(lessonSelection.getStatistics("Lesson selection"));
+        }
+        return statistics.toString();
+    }
+
+    /**
+     * Records the time taken to build one menu.
+     *
+     * @param start the System.nanoTime() value when the build started
+     */
+    private void recordBuild(long start) {
+        long elapsed = System.nanoTime() - start;
+        menusBuilt++;
+        buildNanos += elapsed;
+        maxBuildNanos = Math.max(maxBuildNanos, elapsed);
+    }
+
+    /**
+     * Shows asset preloading progress on the home page's start button. The
+     * button starts working once every asset has been loaded.
+     *
+     * @param loaded the number of assets loaded so far
+     * @param total  the total number of assets
+     */
+    public void showLoadingProgress(int loaded, int total) {
+        if (loaded >= total) {
+            startButton.setText("Start");
+            startButton.setCommand(startCommand);
+        } else {
+            startButton.setText("Loading " + (100 * loaded / total) + "%");
+        }
+    }
+
+    /**
+     * Loads the menu selected by a command, closing the previous menu.
+     *
+     * @param command the command selecting the menu to be loaded
+     */
+    public void loadMenu(Command command) {
         if (previousMenu != null) {
             close(previousMenu);
         }
-        String[] args = menuID.split(" ");
-        if (args.length != 2) {
-            throw new IllegalArgumentException("Cant load menu, command doesnt have the correct number of arguments");
-        }
         ViewComponent menu;
-        if (args[0].equals("showHomePage")) {
-            menu = homePage;
-        } else if (args[0].equals("showUnitSelection")) {
-            menu = unitSelection;
-        } else if (args[0].equals("showLessonComplete")) {
-            menu = lessonComplete;
-        } else if (args[0].equals("showDrillComplete")) {
-            menu = drillComplete;
-        } else if (args[0].equals("showReviewDrillComplete")) {
-            menu = reviewDrillComplete;
-        } else if (args[0].equals("showLessonSelection")) {
-            menu = lessonSelection.get(Integer.parseInt(args[1]));
-            if (menu == null) {
+        switch (command.getOpcode()) {
+            case SHOW_HOME_PAGE:
+                menu = homePage;
+                break;
+            case SHOW_UNIT_SELECTION:
+                menu = getUnitSelection().getGroup();
+                break;
+            case SHOW_LESSON_COMPLETE:
+                menu = getLessonComplete();
+                break;
+            case SHOW_DRILL_COMPLETE:
+                menu = getDrillComplete();
+                break;
+            case SHOW_REVIEW_DRILL_COMPLETE:
+                menu = reviewDrillComplete;
+                break;
+            case SHOW_PRACTICE_COMPLETE:
+                menu = getPracticeComplete();
+                break;
+            case SHOW_LESSON_SELECTION:
+                menu = getLessonSelection(command.getFirstArgument());
+                break;
+            default:
                 throw new IllegalArgumentException("Not a valid menu");
-            }
-        } else {
-            throw new IllegalArgumentException("Not a valid menu");
         }
         loadMenu(menu);
         previousMenu = menu;
     }
 
     /**
-     * Loads the given menu and sets its components to be visible.
+     * Loads the given menu by showing its group and bringing it to the front.
      *
      * @param menu the ViewComponent representing the menu to be loaded
      */
     private void loadMenu(ViewComponent menu) {
-        for (ViewComponent component : menu.getComponents()) {
-            if (component != null) {
-                component.setHidden(false);
-            }
-        }
+        menu.setHidden(false);
+        menu.toFront();
     }
 
     /**
-     * Closes the given ViewComponent and all its child components recursively.
+     * Closes the given menu by hiding its group. The menu's components keep
+     * their own visibility for the next time it is shown.
      * If the given component is null, it returns true.
-     * If all child components are successfully closed, the given component is
-     * marked as hidden.
      *
      * @param obj the ViewComponent to be closed
-     * @return true if the given component and all its child components are hidden,
-     *         false otherwise
+     * @return true once the menu is hidden
      */
     public boolean close(ViewComponent obj) {
         if (obj == null) {
             return true;
         }
-        ViewComponent[] components = obj.getComponents();
-        boolean allHidden = true;
-        for (ViewComponent component : components) {
-            if (!close(component)) {
-                allHidden = false;
-            }
-        }
-        if (allHidden) {
-            obj.setHidden(true);
+        obj.setHidden(true);
+        return true;
+    }
+
+    /**
+     * Finishes building a menu: its direct children are made visible inside the
+     * group once, and the group itself is hidden until the menu is loaded.
+     *
+     * @param menu the group of the menu
+     */
+    private void finishMenu(GroupComponent menu) {
+        for (int i = 0; i < menu.getNumChildren(); i++) {
+            menu.getComponents()[i].setHidden(false);
         }
-        return obj.getHidden();
+        menu.setHidden(true);
     }
 
     /**
@@ -300,19 +525,20 @@ public class MenuViewer {
         int screenWidth = ui.getScreenWidth();
         int reviewButtonWidth = screenWidth - (PADDING + PADDING);
         int[] reviewXYCoords = new int[] { PADDING, reviewButtonWidth, 450, 100 };
+        getDrillComplete();
 
         buttonID = ui.createViewComponent(drillCompleteID, "button", reviewXYCoords);
         button = (ButtonComponent) ui.getViewComponent(buttonID);
         button.setMessage("loadLesson " + reviewLesson.getLessonID() + " " + drillCompleteID);
         button.setText(reviewLesson.getName());
         controller.addParsable(buttonID);
-        drillComplete = (RectangleComponent) ui.getViewComponent(drillCompleteID);
-        button.getObject().toBack();
-        button.setHidden(true);
+        button.toBack();
+        button.setHidden(false);
     }
 
     /**
      * Creates a new drill complete screen with a review lesson button and score.
+     * The screen made for the previous drill is destroyed first.
      *
      * @param reviewLesson         the lesson to be reviewed
      * @param totalDrillFlashcards the total number of drill flashcards
@@ -324,8 +550,15 @@ public class MenuViewer {
         int screenHeight = ui.getScreenHeight();
         int[] screenSize = new int[] { 0, screenWidth, 0, screenHeight };
 
-        int reviewDrillCompleteID = ui.createViewComponent("rectangle");
-        reviewDrillComplete = (RectangleComponent) ui.getViewComponent(reviewDrillCompleteID);
+        if (reviewDrillComplete != null) {
+            if (previousMenu == reviewDrillComplete) {
+                previousMenu = null;
+            }
+            controller.destroy(reviewDrillComplete.getID());
+        }
+
+        int reviewDrillCompleteID = ui.createViewComponent("group");
+        reviewDrillComplete = (GroupComponent) ui.getViewComponent(reviewDrillCompleteID);
         reviewDrillComplete.updateXY(screenSize);
 
         int returnButtonWidth = screenWidth - (PADDING + PADDING);
@@ -338,6 +571,18 @@ public class MenuViewer {
         controller.addParsable(buttonID);
         button.setHidden(true);
 
+        int[] drillCompleteTextXYCoords = new int[] {600, 900, 50, 75};
+        int drillCompleteTextID = ui.createViewComponent(reviewDrillCompleteID, "text", drillCompleteTextXYCoords);
+        text = (TextComponent) ui.getViewComponent(drillCompleteTextID);
+        text.setText("Drill Complete");
+        text.setFontSize(FONT_SIZE);
+
+        int[] drillScoreXYCoords = new int[] {600, 900, 100, 125};
+        int drillScoreID = ui.createViewComponent(reviewDrillCompleteID, "text", drillScoreXYCoords);
+        text = (TextComponent) ui.getViewComponent(drillScoreID);
+        text.setText("Score: " + numberCorrectAnswers + "/" + totalDrillFlashcards);
+        text.setFontSize(FONT_SIZE);
+
         int reviewButtonWidth = screenWidth - (PADDING + PADDING);
         int[] reviewXYCoords = new int[] { PADDING, reviewButtonWidth, 450, 100 };
 
@@ -346,16 +591,18 @@ public class MenuViewer {
         button.setMessage("loadLesson " + reviewLesson.getLessonID() + " " + reviewDrillCompleteID);
         button.setText(reviewLesson.getName());
         controller.addParsable(buttonID);
-        Platform.runLater(() -> {
-            button.getObject().toBack();
-        });
+        button.toBack();
+        button.setHidden(true);
+
+        int[] replayMistakeXYCoords = new int[] { PADDING, reviewButtonWidth, 600, 100 };
+        buttonID = ui.createViewComponent(reviewDrillCompleteID, "button", replayMistakeXYCoords);
+        button = (ButtonComponent) ui.getViewComponent(buttonID);
+        button.setMessage("replayMistake");
+        button.setText("Replay Last Mistake");
+        controller.addParsable(buttonID);
         button.setHidden(true);
 
-        reviewDrillComplete.setHidden(false);
-        Platform.runLater(() -> {
-            reviewDrillComplete.getObject().toFront();
-        });
-        close(reviewDrillComplete);
+        finishMenu(reviewDrillComplete);
     }
 
     /**
@@ -0,0 +1,176 @@
+package Controller;
+
+import View.*;
+
+/**
+ * A PagedSelection shows a list of selectable items as a grid of buttons, one
+ * page at a time. The grid's buttons are created once and rebound to the items
+ * of the page being shown, so the number of nodes stays the same however many
+ * items there are. Previous and next buttons page through the items.
+ */
+public class PagedSelection {
+    public static final int COLUMNS = 4;
+    public static final int ROWS = 2;
+    public static final int PAGE_SIZE = COLUMNS * ROWS;
+
+    private static final int PADDING = 50;
+    private static final int ROW_HEIGHT = 100;
+    private static final int FIRST_ROW_Y = 200;
+    private static final int NAV_Y = 550;
+    private static final int NAV_WIDTH = 200;
+    private static final int PAGE_FONT_SIZE = 24;
+
+    private final GroupComponent group;
+    private final ButtonComponent[] slots;
+    private final ButtonComponent previousButton;
+    private final ButtonComponent nextButton;
+    private final TextComponent pageText;
+
+    private String[] labels;
+    private Command[] commands;
+    private int numItems;
+    private int page;
+
+    // Instrumentation
+    private long pageTurns;
+    private long maxBindNanos;
+
+    /**
+     * Creates the grid's buttons and the paging controls in a new group. The
+     * group starts hidden and empty.
+     *
+     * @param controller the controller the buttons are registered with
+     * @param ui         the user interface to create the components in
+     */
+    public PagedSelection(Controller controller, UI ui) {
+        int screenWidth = ui.getScreenWidth();
+        int groupID = ui.createViewComponent("group");
+        group = (GroupComponent) ui.getViewComponent(groupID);
+        group.updateXY(new int[] { 0, screenWidth, 0, ui.getScreenHeight() });
+
+        int slotWidth = screenWidth / COLUMNS - (PADDING + PADDING);
+        slots = new ButtonComponent[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int x = PADDING + (i % COLUMNS) * (slotWidth + PADDING + PADDING);
+            int y = FIRST_ROW_Y + (i / COLUMNS) * (ROW_HEIGHT + PADDING);
+            int buttonID = ui.createViewComponent(groupID, "button", new int[] { x, slotWidth, y, ROW_HEIGHT });
+            slots[i] = (ButtonComponent) ui.getViewComponent(buttonID);
+            controller.addParsable(buttonID);
+        }
+
+        int buttonID = ui.createViewComponent(groupID, "button", new int[] { PADDING, NAV_WIDTH, NAV_Y, ROW_HEIGHT });
+        previousButton = (ButtonComponent) ui.getViewComponent(buttonID);
+        previousButton.setMessage("pagePrev " + groupID);
+        previousButton.setText("Previous");
+        controller.addParsable(buttonID);
+
+        buttonID = ui.createViewComponent(groupID, "button",
+                new int[] { screenWidth - PADDING - NAV_WIDTH, NAV_WIDTH, NAV_Y, ROW_HEIGHT });
+        nextButton = (ButtonComponent) ui.getViewComponent(buttonID);
+        nextButton.setMessage("pageNext " + groupID);
+        nextButton.setText("Next");
+        controller.addParsable(buttonID);
+
+        int textID = ui.createViewComponent(groupID, "text",
+                new int[] { screenWidth / 2 - 50, screenWidth / 2 + 100, NAV_Y + 35, NAV_Y + 70 });
+        pageText = (TextComponent) ui.getViewComponent(textID);
+        pageText.setFontSize(PAGE_FONT_SIZE);
+        pageText.setHidden(false);
+
+        labels = new String[0];
+        commands = new Command[0];
+        group.setHidden(true);
+    }
+
+    /**
+     * Replaces the items and shows their first page.
+     *
+     * @param labels   the text of each item's button
+     * @param commands the command each item's button dispatches
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void setItems(String[] labels, Command[] commands) {
+        if (labels.length != commands.length) {
+            throw new IllegalArgumentException("Every item needs a label and a command");
+        }
+        this.labels = labels;
+        this.commands = commands;
+        numItems = labels.length;
+        showPage(0);
+    }
+
+    /**
+     * Moves forward or back by a number of pages, stopping at the first and
+     * last page.
+     *
+     * @param delta the number of pages to move, negative to move back
+     */
+    public void turnPage(int delta) {
+        int target = Math.max(0, Math.min(getNumPages() - 1, page + delta));
+        if (target != page) {
+            pageTurns++;
+            showPage(target);
+        }
+    }
+
+    /**
+     * Binds the grid's buttons to the items of a page. Buttons past the last
+     * item are hidden, and the paging controls are only shown when there is
+     * more than one page.
+     *
+     * @param page the index of the page to show
+     */
+    private void showPage(int page) {
+        long start = System.nanoTime();
+        this.page = page;
+        int first = page * PAGE_SIZE;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int item = first + i;
+            if (item < numItems) {
+                slots[i].setText(labels[item]);
+                slots[i].setCommand(commands[item]);
+                slots[i].setHidden(false);
+            } else {
+                slots[i].setCommand(null);
+                slots[i].setHidden(true);
+            }
+        }
+        int numPages = getNumPages();
+        previousButton.setHidden(numPages <= 1 || page == 0);
+        nextButton.setHidden(numPages <= 1 || page == numPages - 1);
+        pageText.setText(numPages <= 1 ? "" : (page + 1) + " / " + numPages);
+
+        long elapsed = System.nanoTime() - start;
+        maxBindNanos = Math.max(maxBindNanos, elapsed);
+    }
+
+    /**
+     * Returns the number of pages the items fill, at least one.
+     *
+     * @return the number of pages
+     */
+    public int getNumPages() {
+        return Math.max(1, (numItems + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    /**
+     * Returns the group holding the selection's components.
+     *
+     * @return the group
+     */
+    public GroupComponent getGroup() {
+        return group;
+    }
+
+    /**
+     * Returns a summary of the items, the fixed number of buttons showing them
+     * and the time spent binding pages.
+     *
+     * @param name the name of the selection to report
+     * @return the statistics as a String
+     */
+    public String getStatistics(String name) {
+        return String.format("%s: %d items on %d pages shown by %d buttons, %d page turns, %.1f us max bind time",
+                name, numItems, getNumPages(), PAGE_SIZE + 2, pageTurns, maxBindNanos / 1e3);
+    }
+}
@@ -0,0 +1,128 @@
+package Controller;
+
+import Model.Flashcard;
+import View.*;
+
+/**
+ * The PracticeViewer class is responsible for managing the visual components of
+ * a scrolling practice session. Flashcards stream across a wide grand staff
+ * towards a play line, and a score shows how many have been answered
+ * correctly so far.
+ * The timing and grading are kept by the Controller on its session clock;
+ * this class only displays them.
+ */
+public class PracticeViewer {
+    private static final double SCORE_FONT_SIZE = 32;
+
+    private UI ui;
+    private Controller controller;
+    private GroupComponent screen;
+    private ScrollingStaffComponent staff;
+    private TextComponent score;
+    private ButtonComponent backButton;
+    private int[] menuSize;
+
+    /**
+     * Constructs a PracticeViewer object.
+     *
+     * @param ui         the UI instance to be associated with this PracticeViewer
+     * @param controller the Controller instance to be associated with this PracticeViewer
+     */
+    public PracticeViewer(UI ui, Controller controller) {
+        this.ui = ui;
+        this.controller = controller;
+        menuSize = new int[]{0, ui.getScreenWidth(), 0, ui.getScreenHeight()};
+    }
+
+    /**
+     * Initializes the practice screen with the scrolling staff, the score and
+     * a back button. The screen's group is hidden until practice starts.
+     */
+    public void initializePractice() {
+        int screenID = ui.createViewComponent("group");
+        screen = (GroupComponent) ui.getViewComponent(screenID);
+        screen.setHidden(true);
+
+        int[] staffCoords = { 0, menuSize[1], 60, menuSize[3] - 100 };
+        int staffID = ui.createViewComponent(screenID, "scrollingStaff", new int[4]);
+        ui.getViewComponent(staffID).updateXY(staffCoords);
+        staff = (ScrollingStaffComponent) ui.getViewComponent(staffID);
+        staff.setHidden(false);
+
+        int[] scoreCoords = { 600, 0, 10, 0 };
+        int scoreID = ui.createViewComponent(screenID, "text", new int[4]);
+        ui.getViewComponent(scoreID).updateXY(scoreCoords);
+        score = (TextComponent) ui.getViewComponent(scoreID);
+        score.setFontSize(SCORE_FONT_SIZE);
+        score.setHidden(false);
+
+        int[] backButtonCoords = {0, 100, menuSize[3] - 100, 100};
+        int backButtonID = ui.createViewComponent(screenID, "button", new int[4]);
+        backButton = (ButtonComponent) ui.getViewComponent(backButtonID);
+        backButton.updateXY(backButtonCoords);
+        backButton.setHidden(false);
+        backButton.setMessage("back");
+        backButton.setText("Main Menu");
+        controller.addParsable(backButtonID);
+    }
+
+    /**
+     * Shows the practice screen and starts scrolling the flashcards.
+     *
+     * @param flashcards   the flashcards to practice, in order
+     * @param startTime    the time the first card reaches the play line, in
+     *                     System.nanoTime() units
+     * @param nanosPerCard the time between cards in nanoseconds
+     */
+    public void start(Flashcard[] flashcards, long startTime, long nanosPerCard) {
+        int[][] chords = new int[flashcards.length][];
+        char[] clefs = new char[flashcards.length];
+        for (int i = 0; i < flashcards.length; i++) {
+            chords[i] = flashcards[i].getAnswer();
+            clefs[i] = flashcards[i].getClef();
+        }
+        staff.setChart(chords, clefs, startTime, nanosPerCard);
+        showScore(0, flashcards.length);
+        if (screen.getHidden()) {
+            screen.setHidden(false);
+            screen.toFront();
+        }
+    }
+
+    /**
+     * Colours a graded card.
+     *
+     * @param card  the index of the card
+     * @param grade ScrollingStaffComponent.CORRECT, WRONG or MISSED
+     */
+    public void grade(int card, byte grade) {
+        staff.setGrade(card, grade);
+    }
+
+    /**
+     * Updates the score.
+     *
+     * @param correct the number of cards answered correctly
+     * @param total   the number of cards in the practice
+     */
+    public void showScore(int correct, int total) {
+        score.setText(correct + " / " + total);
+    }
+
+    /**
+     * Closes the practice screen, stopping the staff from scrolling.
+     */
+    public void close() {
+        staff.stopScrolling();
+        screen.setHidden(true);
+    }
+
+    /**
+     * Returns how many frames the scrolling staff drew and how long they took.
+     *
+     * @return the statistics as a String
+     */
+    public String getStatistics() {
+        return staff.getStatistics();
+    }
+}
@@ -0,0 +1,242 @@
+package Controller;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import Model.Clock;
+import Model.VirtualClock;
+
+/**
+ * The Session owns a single thread that runs every change to the user's session
+ * state. MIDI, UI and timer events are posted to its mailbox from any thread
+ * and are processed one at a time in the order they arrive, so the state they
+ * touch needs no locks. Posting an event never blocks.
+ *
+ * Timers follow the session's Clock. A session that is never started can
+ * instead be driven from the caller's thread with runPending() and advance(),
+ * which together with a VirtualClock runs timers without waiting for them.
+ */
+public class Session {
+    private final ConcurrentLinkedQueue<Runnable> mailbox;
+    private final PriorityQueue<Timer> timers;
+    private final Clock clock;
+    private long nextTimerSequence;
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    /**
+     * Constructs a Session. Events are queued but not run until start() is
+     * called, or until runPending() is called for a session driven by its
+     * caller.
+     *
+     * @param clock the clock timers are scheduled against
+     */
+    public Session(Clock clock) {
+        this.clock = clock;
+        mailbox = new ConcurrentLinkedQueue<>();
+        timers = new PriorityQueue<>();
+        nextTimerSequence = 0;
+        running = false;
+    }
+
+    /**
+     * Starts the session thread.
+     */
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "Session");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the session thread after the event it is currently running.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Posts an event to the session. It runs on the session thread after every
+     * event posted before it.
+     *
+     * @param event the event to run
+     */
+    public void execute(Runnable event) {
+        mailbox.offer(event);
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Schedules a timer event to run on the session thread after a delay. Must be
+     * called from the session thread.
+     *
+     * @param event       the event to run
+     * @param delayMillis the delay in milliseconds
+     * @return the timer, which can be cancelled until it runs
+     */
+    public Timer schedule(Runnable event, long delayMillis) {
+        return scheduleAt(event, clock.nanoTime() + delayMillis * 1000000L);
+    }
+
+    /**
+     * Schedules a timer event to run on the session thread at a time on the
+     * session's clock. Must be called from the session thread.
+     *
+     * @param event    the event to run
+     * @param deadline the clock time to run the event at, in nanoseconds
+     * @return the timer, which can be cancelled until it runs
+     */
+    public Timer scheduleAt(Runnable event, long deadline) {
+        Timer timer = new Timer(event, deadline, nextTimerSequence++);
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Returns the session's clock.
+     *
+     * @return the clock timers are scheduled against
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Runs every queued event and every due timer on the caller's thread, until
+     * none are left. Only for sessions that have not been started.
+     */
+    public void runPending() {
+        boolean ranEvent = true;
+        while (ranEvent) {
+            ranEvent = false;
+            Runnable event;
+            while ((event = mailbox.poll()) != null) {
+                runEvent(event);
+                ranEvent = true;
+            }
+            long now = clock.nanoTime();
+            while (!timers.isEmpty() && timers.peek().deadline - now <= 0) {
+                runEvent(timers.poll().event);
+                ranEvent = true;
+            }
+        }
+    }
+
+    /**
+     * Moves a virtual clock forward, stopping at each timer deadline on the way
+     * to run the timer and any events it causes. Only for sessions that have not
+     * been started.
+     *
+     * @param virtualClock the session's clock
+     * @param nanos        how far to move the clock in nanoseconds
+     */
+    public void advance(VirtualClock virtualClock, long nanos) {
+        long target = virtualClock.nanoTime() + nanos;
+        runPending();
+        while (!timers.isEmpty() && timers.peek().deadline - target <= 0) {
+            long deadline = timers.peek().deadline;
+            if (deadline - virtualClock.nanoTime() > 0) {
+                virtualClock.advanceTo(deadline);
+            }
+            runPending();
+        }
+        virtualClock.advanceTo(target);
+        runPending();
+    }
+
+    /**
+     * Checks if the caller is running on the session thread.
+     *
+     * @return true if called from the session thread
+     */
+    public boolean isSessionThread() {
+        return Thread.currentThread() == worker;
+    }
+
+    /**
+     * The session thread's loop. It drains the mailbox, runs any timers that are
+     * due and parks until more events are posted or the next timer is due.
+     */
+    private void run() {
+        while (running) {
+            Runnable event;
+            while (running && (event = mailbox.poll()) != null) {
+                runEvent(event);
+            }
+            runDueTimers();
+            if (running && mailbox.isEmpty()) {
+                Timer next = timers.peek();
+                if (next == null) {
+                    LockSupport.park(this);
+                } else {
+                    long wait = next.deadline - clock.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every timer whose deadline has passed, in deadline order.
+     */
+    private void runDueTimers() {
+        long now = clock.nanoTime();
+        while (running && !timers.isEmpty() && timers.peek().deadline - now <= 0) {
+            runEvent(timers.poll().event);
+        }
+    }
+
+    /**
+     * Runs one event, reporting rather than propagating its failure so one bad
+     * event does not stop the session.
+     *
+     * @param event the event to run
+     */
+    private void runEvent(Runnable event) {
+        try {
+            event.run();
+        } catch (RuntimeException e) {
+            System.err.println("Session event failed: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A timer event scheduled on the session.
+     */
+    public class Timer implements Comparable<Timer> {
+        private final Runnable event;
+        private final long deadline;
+        private final long sequence;
+
+        private Timer(Runnable event, long deadline, long sequence) {
+            this.event = event;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Cancels the timer if it has not run yet. Must be called from the
+         * session thread.
+         */
+        public void cancel() {
+            timers.remove(this);
+        }
+
+        /**
+         * Orders timers by deadline, then by the order they were scheduled.
+         */
+        @Override
+        public int compareTo(Timer other) {
+            long difference = deadline - other.deadline;
+            if (difference != 0) {
+                return difference < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -35,7 +35,10 @@ public class Main extends Application {
             Thread commandParserThread = new Thread(commandParser);
             commandParserThread.setDaemon(true);
             commandParserThread.start();
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> commandParser.stop()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                commandParser.stop();
+                controller.stop();
+            }));
         } catch (Exception exception) {
             System.out.println(exception);
         }
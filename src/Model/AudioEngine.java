@@ -0,0 +1,36 @@
+package Model;
+
+/**
+ * AudioEngine is the common interface for the engines that echo the notes a
+ * user plays. It lets the controller swap the General MIDI synthesizer for a
+ * lighter sample based engine without changing how notes are delivered.
+ */
+public interface AudioEngine {
+    /**
+     * Starts playing a note.
+     *
+     * @param note     the MIDI note number to play.
+     * @param velocity the velocity of the note (0-127).
+     */
+    public void noteOn(int note, int velocity);
+
+    /**
+     * Stops playing a note.
+     *
+     * @param note the MIDI note number to stop.
+     */
+    public void noteOff(int note);
+
+    /**
+     * Selects the General MIDI program notes are echoed with from now on.
+     *
+     * @param program the program number (0-127).
+     * @throws IllegalArgumentException if the engine cannot play the program.
+     */
+    public void setProgram(int program);
+
+    /**
+     * Closes the engine and releases all audio resources.
+     */
+    public void close();
+}
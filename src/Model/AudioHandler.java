@@ -5,29 +5,73 @@ import javax.sound.midi.*;
 /**
  * AudioHandler manages the synthesizer and handles playing and stopping notes.
  */
-public class AudioHandler {
+public class AudioHandler implements AudioEngine {
     private static final int DEFAULT_CHANNEL = 0; // Typically, channel 0 is used for piano sounds
+    private final int[] programs;
     private Synthesizer synthesizer;
+    private SoundbankLoader soundbankLoader;
     private MidiChannel[] channels;
+    private int program;
 
     /**
-     * Constructs an AudioHandler and initializes the synthesizer.
+     * Constructs an AudioHandler and initializes the synthesizer with the
+     * instruments the curriculum uses. Notes are echoed with the first one
+     * until another is selected with setProgram.
      *
+     * @param programs the General MIDI programs to load, from Model.getPrograms().
      * @throws MidiUnavailableException if the synthesizer is unavailable.
+     * @throws IllegalArgumentException if no programs are given.
      */
-    public AudioHandler() throws MidiUnavailableException {
+    public AudioHandler(int[] programs) throws MidiUnavailableException {
+        if (programs.length == 0) {
+            throw new IllegalArgumentException("At least one program is needed");
+        }
+        this.programs = programs.clone();
+        program = programs[0];
         initializeSynthesizer();
     }
 
     /**
-     * Initializes the synthesizer and retrieves available MIDI channels.
+     * Initializes the synthesizer. It is opened in the background with only the
+     * curriculum's instruments loaded, and channels are retrieved once it is
+     * ready.
      *
-     * @throws MidiUnavailableException if the synthesizer cannot be opened.
+     * @throws MidiUnavailableException if the synthesizer is unavailable.
      */
     private void initializeSynthesizer() throws MidiUnavailableException {
         synthesizer = MidiSystem.getSynthesizer();
-        synthesizer.open();
-        channels = synthesizer.getChannels();
+        soundbankLoader = new SoundbankLoader(synthesizer);
+        soundbankLoader.loadInBackground(programs, () -> {
+            synchronized (this) {
+                channels = synthesizer.getChannels();
+                channels[DEFAULT_CHANNEL].programChange(program);
+            }
+        });
+    }
+
+    /**
+     * Selects the program notes are echoed with. If the synthesizer is still
+     * loading, the program is selected once it is ready.
+     *
+     * @param program one of the programs this handler was constructed with.
+     * @throws IllegalArgumentException if the program was not loaded.
+     */
+    @Override
+    public synchronized void setProgram(int program) {
+        boolean loaded = false;
+        for (int loadedProgram : programs) {
+            loaded |= loadedProgram == program;
+        }
+        if (!loaded) {
+            throw new IllegalArgumentException("Program not loaded: " + program);
+        }
+        if (program == this.program) {
+            return;
+        }
+        this.program = program;
+        if (channels != null) {
+            channels[DEFAULT_CHANNEL].programChange(program);
+        }
     }
 
     /**
@@ -36,7 +80,11 @@ public class AudioHandler {
      * @param note     the MIDI note number to play.
      * @param velocity the velocity of the note (0-127).
      */
+    @Override
     public void noteOn(int note, int velocity) {
+        if (!soundbankLoader.isReady()) {
+            return;
+        }
         if (isValidNoteNumber(note) && isValidVelocity(velocity)) {
             channels[DEFAULT_CHANNEL].noteOn(note, velocity);
         } else {
@@ -49,7 +97,11 @@ public class AudioHandler {
      *
      * @param note the MIDI note number to stop.
      */
+    @Override
     public void noteOff(int note) {
+        if (!soundbankLoader.isReady()) {
+            return;
+        }
         if (isValidNoteNumber(note)) {
             channels[DEFAULT_CHANNEL].noteOff(note);
         } else {
@@ -60,6 +112,7 @@ public class AudioHandler {
     /**
      * Closes the synthesizer and releases all audio resources.
      */
+    @Override
     public void close() {
         if (synthesizer != null && synthesizer.isOpen()) {
             synthesizer.close();
@@ -0,0 +1,21 @@
+package Model;
+
+/**
+ * A source of time for timers, feedback, drills and scoring. Code that needs
+ * the time asks its Clock instead of calling System.nanoTime() directly, so a
+ * VirtualClock can be swapped in to run sessions faster than real time.
+ */
+public interface Clock {
+    /**
+     * The clock backed by System.nanoTime().
+     */
+    public static final Clock SYSTEM = System::nanoTime;
+
+    /**
+     * Returns the current time of this clock. Like System.nanoTime(), only the
+     * difference between two readings is meaningful.
+     *
+     * @return the current time in nanoseconds
+     */
+    public long nanoTime();
+}
@@ -14,7 +14,7 @@ public class Drill extends Lesson {
      * @param lessonName the name of the lesson
      * @param lessonInfo additional information about the lesson
      * @param flashcardList an array of Flashcard objects associated with the lesson
-     * @param timeLim the time limit for the drill in minutes
+     * @param timeLim the time limit for the drill in seconds
      */
     public Drill(int lessonID, String lessonName, String lessonInfo, Flashcard[] flashcardList, int timeLim) {
         super(lessonID, lessonName, lessonInfo, flashcardList);
@@ -24,7 +24,7 @@ public class Drill extends Lesson {
     /**
      * Returns the time limit for the drill.
      *
-     * @return the time limit in minutes
+     * @return the time limit in seconds
      */
     public int getTimeLim() {
         return timeLim;
@@ -33,7 +33,7 @@ public class Drill extends Lesson {
     /**
      * Sets the time limit for the drill.
      *
-     * @param timeLim the new time limit in minutes
+     * @param timeLim the new time limit in seconds
      */
     public void setTimeLim(int timeLim) {
         this.timeLim = timeLim;
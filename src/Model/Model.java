@@ -1,6 +1,7 @@
 package Model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * The Model class represents the data model for the application.
@@ -10,6 +11,9 @@ import java.util.ArrayList;
  * @version 1.1
  */
 public class Model {
+    // Lessons per unit in a synthetic curriculum
+    private static final int SYNTHETIC_UNIT_SIZE = 10;
+
     private ArrayList<Unit> units;
     private ArrayList<Lesson> lessons;
     private ArrayList<Drill> drills;
@@ -53,6 +57,50 @@ public class Model {
         return units.size();
     }
 
+    /**
+     * Returns the General MIDI programs the curriculum's units use, each once,
+     * in the order the units first use them.
+     * 
+     * @return the program numbers
+     */
+    public int[] getPrograms() {
+        int[] programs = new int[units.size()];
+        int numPrograms = 0;
+        for (Unit unit : units) {
+            boolean seen = false;
+            for (int i = 0; i < numPrograms; i++) {
+                seen |= programs[i] == unit.getProgram();
+            }
+            if (!seen) {
+                programs[numPrograms++] = unit.getProgram();
+            }
+        }
+        return Arrays.copyOf(programs, numPrograms);
+    }
+
+    /**
+     * Finds the unit a lesson or drill belongs to.
+     * 
+     * @param lesson the lesson or drill to look for
+     * @return the unit, or null if the lesson is not part of one, like the
+     *         review lesson made after a drill
+     */
+    public Unit getUnitOf(Lesson lesson) {
+        for (Unit unit : units) {
+            for (Lesson unitLesson : unit.getLessons()) {
+                if (unitLesson == lesson) {
+                    return unit;
+                }
+            }
+            for (Drill unitDrill : unit.getDrills()) {
+                if (unitDrill == lesson) {
+                    return unit;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Retrieves a lesson by its ID.
      * 
@@ -100,6 +148,41 @@ public class Model {
         initializeUnit2();
         initializeUnit3();
         initializeUnit4();
+        initializeSyntheticUnits(Integer.getInteger("pitchperfect.syntheticLessons", 0));
+    }
+
+    /**
+     * Adds a synthetic curriculum for trying the menus with many units. The
+     * lessons reuse the flashcards of the real lessons, and each unit ends with
+     * a drill reusing the flashcards of a real drill.
+     * 
+     * @param numLessons the number of lessons to add, in units of up to ten
+     *                   lessons each
+     */
+    private void initializeSyntheticUnits(int numLessons) {
+        if (numLessons <= 0) {
+            return;
+        }
+        int numRealLessons = lessons.size();
+        int numRealDrills = drills.size();
+        int added = 0;
+        while (added < numLessons) {
+            int unitSize = Math.min(SYNTHETIC_UNIT_SIZE, numLessons - added);
+            int unitNumber = units.size() + 1;
+            Lesson[] unitLessons = new Lesson[unitSize];
+            for (int i = 0; i < unitSize; i++) {
+                Lesson source = lessons.get((added + i) % numRealLessons);
+                unitLessons[i] = new Lesson(lessons.size(), "Lesson " + (i + 1), source.getInfo(),
+                        source.getFlashcards());
+                lessons.add(unitLessons[i]);
+            }
+            Drill source = drills.get(units.size() % numRealDrills);
+            Drill[] unitDrills = new Drill[] { new Drill(drills.size(), "Drill 1", source.getInfo(),
+                    source.getFlashcards(), source.getTimeLim()) };
+            drills.add(unitDrills[0]);
+            units.add(new Unit(unitNumber, "Unit " + unitNumber, "Synthetic unit", unitLessons, unitDrills));
+            added += unitSize;
+        }
     }
 
     private void initializeUnit1() {
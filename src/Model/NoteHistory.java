@@ -0,0 +1,180 @@
+package Model;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * NoteHistory keeps the most recent note events of a session in a fixed-size
+ * ring of primitive arrays, so recording an event costs only a few array
+ * writes. The recent events can be replayed through an AudioEngine with their
+ * original timing.
+ */
+public class NoteHistory {
+    private static final int CAPACITY = 1024; // must be a power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] times;
+    private final int[] notes;
+    private final int[] velocities;
+    private volatile int count;
+    private Thread replayThread;
+
+    /**
+     * Constructs an empty NoteHistory.
+     */
+    public NoteHistory() {
+        times = new long[CAPACITY];
+        notes = new int[CAPACITY];
+        velocities = new int[CAPACITY];
+        count = 0;
+    }
+
+    /**
+     * Records a note event. A velocity of 0 records a note off.
+     *
+     * @param time     the time of the event in nanoseconds.
+     * @param note     the MIDI note number.
+     * @param velocity the velocity of the note (0-127).
+     */
+    public void record(long time, int note, int velocity) {
+        int index = count & MASK;
+        times[index] = time;
+        notes[index] = note;
+        velocities[index] = velocity;
+        count++;
+    }
+
+    /**
+     * Removes all recorded events.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Gets the distinct notes started within the window, most recent first.
+     *
+     * @param now         the current time in nanoseconds.
+     * @param windowNanos how far back to look in nanoseconds.
+     * @param maxNotes    the maximum number of notes to return.
+     * @return an array of MIDI note numbers.
+     */
+    public int[] getRecentNotes(long now, long windowNanos, int maxNotes) {
+        int[] recent = new int[maxNotes];
+        int found = 0;
+        int first = firstIndexInWindow(now, windowNanos);
+        for (int i = count - 1; i >= first && found < maxNotes; i--) {
+            int index = i & MASK;
+            if (velocities[index] > 0 && !contains(recent, found, notes[index])) {
+                recent[found] = notes[index];
+                found++;
+            }
+        }
+        int[] result = new int[found];
+        System.arraycopy(recent, 0, result, 0, found);
+        return result;
+    }
+
+    /**
+     * Replays the events within the window through the given audio engine on a
+     * background thread, preserving their original spacing. Any replay already
+     * in progress is stopped.
+     *
+     * @param engine      the engine to play the events through.
+     * @param now         the current time in nanoseconds.
+     * @param windowNanos how far back to replay in nanoseconds.
+     */
+    public void replay(AudioEngine engine, long now, long windowNanos) {
+        replayBetween(engine, now - windowNanos, now);
+    }
+
+    /**
+     * Replays the retained events between two times through the given audio
+     * engine on a background thread, preserving their original spacing. Any
+     * replay already in progress is stopped.
+     *
+     * @param engine the engine to play the events through.
+     * @param from   the time of the first event to replay in nanoseconds.
+     * @param to     the time of the last event to replay in nanoseconds.
+     */
+    public void replayBetween(AudioEngine engine, long from, long to) {
+        int last = count;
+        int first = Math.max(0, last - CAPACITY);
+        while (first < last && times[first & MASK] - from < 0) {
+            first++;
+        }
+        int end = first;
+        while (end < last && times[end & MASK] - to <= 0) {
+            end++;
+        }
+        int size = end - first;
+        long[] replayTimes = new long[size];
+        int[] replayNotes = new int[size];
+        int[] replayVelocities = new int[size];
+        for (int i = 0; i < size; i++) {
+            int index = (first + i) & MASK;
+            replayTimes[i] = times[index];
+            replayNotes[i] = notes[index];
+            replayVelocities[i] = velocities[index];
+        }
+
+        if (replayThread != null) {
+            replayThread.interrupt();
+        }
+        replayThread = new Thread(() -> play(engine, replayTimes, replayNotes, replayVelocities), "Note replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Plays a copied sequence of events, releasing any notes left sounding when
+     * it finishes or is interrupted.
+     */
+    private void play(AudioEngine engine, long[] replayTimes, int[] replayNotes, int[] replayVelocities) {
+        boolean[] sounding = new boolean[128];
+        long start = System.nanoTime();
+        for (int i = 0; i < replayTimes.length && !Thread.currentThread().isInterrupted(); i++) {
+            long target = start + (replayTimes[i] - replayTimes[0]);
+            long wait;
+            while ((wait = target - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(wait);
+            }
+            int note = replayNotes[i];
+            if (replayVelocities[i] > 0) {
+                engine.noteOn(note, replayVelocities[i]);
+                sounding[note] = true;
+            } else if (sounding[note]) {
+                engine.noteOff(note);
+                sounding[note] = false;
+            }
+        }
+        for (int note = 0; note < sounding.length; note++) {
+            if (sounding[note]) {
+                engine.noteOff(note);
+            }
+        }
+    }
+
+    /**
+     * Finds the position of the oldest retained event within the window.
+     */
+    private int firstIndexInWindow(long now, long windowNanos) {
+        int last = count;
+        int first = Math.max(0, last - CAPACITY);
+        while (first < last && now - times[first & MASK] > windowNanos) {
+            first++;
+        }
+        return first;
+    }
+
+    /**
+     * Checks if the first length entries of an array contain a value.
+     */
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
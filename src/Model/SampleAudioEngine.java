@@ -0,0 +1,469 @@
+package Model;
+
+import java.io.InputStream;
+import java.io.BufferedInputStream;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sound.sampled.*;
+
+/**
+ * SampleAudioEngine plays preloaded piano samples through a SourceDataLine with
+ * a small buffer. Voices are mixed on a dedicated thread into preallocated
+ * buffers, and note commands reach that thread through a lock-free queue so
+ * the MIDI thread never waits on the mixer.
+ */
+public class SampleAudioEngine implements AudioEngine {
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int BLOCK_FRAMES = 128;
+    private static final int LINE_BUFFER_FRAMES = BLOCK_FRAMES * 4;
+    private static final int MAX_VOICES = 32;
+    private static final int COMMAND_CAPACITY = 256;
+    private static final float SAMPLE_SECONDS = 2.0f;
+    private static final float MASTER_GAIN = 0.3f;
+    private static final float RELEASE_FACTOR = 0.999f;
+    private static final float SILENCE = 0.0001f;
+
+    // One root sample per octave, C1 (24) up to C8 (108)
+    private static final int FIRST_ROOT = 24;
+    private static final int NUM_ROOTS = 8;
+
+    private static final int NOTE_ON = 1;
+    private static final int NOTE_OFF = 2;
+
+    private final float[][] samples;
+    private final CommandQueue commands;
+    private SourceDataLine line;
+    private Thread mixerThread;
+    private volatile boolean running;
+
+    // Voice state, only touched by the mixer thread
+    private final boolean[] voiceActive;
+    private final boolean[] voiceReleasing;
+    private final int[] voiceNote;
+    private final int[] voiceSample;
+    private final double[] voicePosition;
+    private final double[] voiceRate;
+    private final float[] voiceGain;
+    private final long[] voiceStart;
+    private long voiceCounter;
+
+    // Preallocated mix buffers
+    private final float[] mixBuffer;
+    private final byte[] outputBuffer;
+
+    // Statistics used to compare engines
+    private long mixNanos;
+    private long mixedBlocks;
+    private long droppedCommands;
+
+    /**
+     * Constructs a SampleAudioEngine, loads the samples and starts the mixer
+     * thread.
+     *
+     * @throws LineUnavailableException if no suitable output line is available.
+     */
+    public SampleAudioEngine() throws LineUnavailableException {
+        samples = new float[NUM_ROOTS][];
+        for (int i = 0; i < NUM_ROOTS; i++) {
+            samples[i] = loadSample(FIRST_ROOT + i * 12);
+        }
+        commands = new CommandQueue(COMMAND_CAPACITY);
+
+        voiceActive = new boolean[MAX_VOICES];
+        voiceReleasing = new boolean[MAX_VOICES];
+        voiceNote = new int[MAX_VOICES];
+        voiceSample = new int[MAX_VOICES];
+        voicePosition = new double[MAX_VOICES];
+        voiceRate = new double[MAX_VOICES];
+        voiceGain = new float[MAX_VOICES];
+        voiceStart = new long[MAX_VOICES];
+
+        mixBuffer = new float[BLOCK_FRAMES];
+        outputBuffer = new byte[BLOCK_FRAMES * 2];
+
+        openLine();
+    }
+
+    /**
+     * Opens the output line with a buffer of only a few mix blocks and starts the
+     * mixer thread.
+     *
+     * @throws LineUnavailableException if the line cannot be opened.
+     */
+    private void openLine() throws LineUnavailableException {
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+        line = AudioSystem.getSourceDataLine(format);
+        line.open(format, LINE_BUFFER_FRAMES * format.getFrameSize());
+        line.start();
+
+        running = true;
+        mixerThread = new Thread(this::mixLoop, "SampleAudioEngine mixer");
+        mixerThread.setDaemon(true);
+        mixerThread.setPriority(Thread.MAX_PRIORITY);
+        mixerThread.start();
+    }
+
+    /**
+     * Queues a note on command for the mixer.
+     *
+     * @param note     the MIDI note number to play.
+     * @param velocity the velocity of the note (0-127).
+     */
+    @Override
+    public void noteOn(int note, int velocity) {
+        if (isValidNoteNumber(note) && isValidVelocity(velocity)) {
+            offer(NOTE_ON, note, velocity);
+        } else {
+            System.err.println("Invalid note or velocity: " + note + ", " + velocity);
+        }
+    }
+
+    /**
+     * Queues a note off command for the mixer.
+     *
+     * @param note the MIDI note number to stop.
+     */
+    @Override
+    public void noteOff(int note) {
+        if (isValidNoteNumber(note)) {
+            offer(NOTE_OFF, note, 0);
+        } else {
+            System.err.println("Invalid note number: " + note);
+        }
+    }
+
+    /**
+     * Does nothing beyond checking the program, since the engine only has the
+     * one set of piano samples.
+     *
+     * @param program the program number (0-127).
+     * @throws IllegalArgumentException if the program is not a MIDI program.
+     */
+    @Override
+    public void setProgram(int program) {
+        if (program < 0 || program > 127) {
+            throw new IllegalArgumentException("Not a MIDI program: " + program);
+        }
+    }
+
+    /**
+     * Stops the mixer thread, closes the output line and, if the
+     * pitchperfect.stats property is set, prints the mixing statistics.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (mixerThread != null) {
+            try {
+                mixerThread.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (line != null && line.isOpen()) {
+            line.stop();
+            line.close();
+        }
+        if (Boolean.getBoolean("pitchperfect.stats")) {
+            System.out.println(getStatistics());
+        }
+    }
+
+    /**
+     * Returns the output latency of the line buffer in milliseconds.
+     *
+     * @return the buffered output latency.
+     */
+    public double getLatencyMillis() {
+        int frames = line.getBufferSize() / line.getFormat().getFrameSize();
+        return frames * 1000.0 / SAMPLE_RATE;
+    }
+
+    /**
+     * Returns a summary of the mixer's latency and CPU cost.
+     *
+     * @return the statistics as a String.
+     */
+    public String getStatistics() {
+        long blocks = mixedBlocks;
+        double averageMicros = blocks == 0 ? 0 : mixNanos / 1000.0 / blocks;
+        double blockMicros = BLOCK_FRAMES * 1000000.0 / SAMPLE_RATE;
+        return String.format("Sample engine: %d blocks, %.1f us mix per %.0f us block (%.1f%% CPU), %.1f ms output latency, %d dropped commands",
+                blocks, averageMicros, blockMicros, averageMicros * 100 / blockMicros, getLatencyMillis(), droppedCommands);
+    }
+
+    /**
+     * Encodes a command into a single int and offers it to the queue.
+     */
+    private void offer(int type, int note, int velocity) {
+        if (!commands.offer((type << 16) | (note << 8) | velocity)) {
+            droppedCommands++;
+        }
+    }
+
+    /**
+     * The mixer thread's main loop. Writing to the line blocks once its small
+     * buffer is full, which paces the loop to the output rate.
+     */
+    private void mixLoop() {
+        while (running) {
+            int command;
+            while ((command = commands.poll()) != 0) {
+                int note = (command >> 8) & 0xFF;
+                if ((command >> 16) == NOTE_ON) {
+                    startVoice(note, command & 0xFF);
+                } else {
+                    releaseVoice(note);
+                }
+            }
+
+            long start = System.nanoTime();
+            mix();
+            mixNanos += System.nanoTime() - start;
+            mixedBlocks++;
+
+            line.write(outputBuffer, 0, outputBuffer.length);
+        }
+    }
+
+    /**
+     * Mixes all active voices into the output buffer. Does not allocate.
+     */
+    private void mix() {
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            mixBuffer[i] = 0f;
+        }
+
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (!voiceActive[v]) {
+                continue;
+            }
+            float[] sample = samples[voiceSample[v]];
+            double position = voicePosition[v];
+            double rate = voiceRate[v];
+            float gain = voiceGain[v];
+            boolean releasing = voiceReleasing[v];
+            int last = sample.length - 1;
+
+            for (int i = 0; i < BLOCK_FRAMES; i++) {
+                int index = (int) position;
+                if (index >= last) {
+                    voiceActive[v] = false;
+                    break;
+                }
+                float fraction = (float) (position - index);
+                float value = sample[index] + (sample[index + 1] - sample[index]) * fraction;
+                mixBuffer[i] += value * gain;
+                position += rate;
+                if (releasing) {
+                    gain *= RELEASE_FACTOR;
+                }
+            }
+
+            voicePosition[v] = position;
+            voiceGain[v] = gain;
+            if (gain < SILENCE) {
+                voiceActive[v] = false;
+            }
+        }
+
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            float value = mixBuffer[i] * MASTER_GAIN;
+            if (value > 1f) {
+                value = 1f;
+            } else if (value < -1f) {
+                value = -1f;
+            }
+            short pcm = (short) (value * Short.MAX_VALUE);
+            outputBuffer[2 * i] = (byte) pcm;
+            outputBuffer[2 * i + 1] = (byte) (pcm >> 8);
+        }
+    }
+
+    /**
+     * Starts a voice for the given note, retriggering a voice already playing
+     * that note or stealing the oldest voice when all are busy.
+     */
+    private void startVoice(int note, int velocity) {
+        int voice = -1;
+        int oldest = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceActive[v] && voiceNote[v] == note) {
+                voice = v;
+                break;
+            }
+            if (voice == -1 && !voiceActive[v]) {
+                voice = v;
+            }
+            if (voiceStart[v] < voiceStart[oldest]) {
+                oldest = v;
+            }
+        }
+        if (voice == -1) {
+            voice = oldest;
+        }
+
+        int root = Math.round((note - FIRST_ROOT) / 12f);
+        root = Math.max(0, Math.min(NUM_ROOTS - 1, root));
+        voiceSample[voice] = root;
+        voiceRate[voice] = Math.pow(2, (note - (FIRST_ROOT + root * 12)) / 12.0);
+        voicePosition[voice] = 0;
+        voiceGain[voice] = velocity / 127f;
+        voiceNote[voice] = note;
+        voiceReleasing[voice] = false;
+        voiceStart[voice] = voiceCounter++;
+        voiceActive[voice] = true;
+    }
+
+    /**
+     * Moves every voice playing the given note into its release phase.
+     */
+    private void releaseVoice(int note) {
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceActive[v] && voiceNote[v] == note) {
+                voiceReleasing[v] = true;
+            }
+        }
+    }
+
+    /**
+     * Loads the piano sample for a root note from /Assets/Samples if one is
+     * bundled, otherwise synthesizes a piano-like tone for it.
+     *
+     * @param rootNote the MIDI note number of the sample.
+     * @return the sample as mono floats in the range [-1, 1].
+     */
+    private float[] loadSample(int rootNote) {
+        InputStream resource = getClass().getResourceAsStream("/Assets/Samples/piano" + rootNote + ".wav");
+        if (resource != null) {
+            try (AudioInputStream stream = AudioSystem.getAudioInputStream(new BufferedInputStream(resource))) {
+                return readSample(stream);
+            } catch (Exception e) {
+                System.err.println("Failed to load sample " + rootNote + ": " + e.getMessage());
+            }
+        }
+        return synthesizeSample(rootNote);
+    }
+
+    /**
+     * Reads a 16-bit PCM stream into mono floats, keeping only the first
+     * channel.
+     */
+    private float[] readSample(AudioInputStream stream) throws java.io.IOException {
+        AudioFormat format = stream.getFormat();
+        if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.getSampleSizeInBits() != 16) {
+            throw new java.io.IOException("samples must be 16-bit signed PCM");
+        }
+        byte[] bytes = stream.readAllBytes();
+        int frameSize = format.getFrameSize();
+        float[] sample = new float[bytes.length / frameSize];
+        for (int i = 0; i < sample.length; i++) {
+            int offset = i * frameSize;
+            int pcm = format.isBigEndian()
+                    ? (bytes[offset] << 8) | (bytes[offset + 1] & 0xFF)
+                    : (bytes[offset + 1] << 8) | (bytes[offset] & 0xFF);
+            sample[i] = pcm / (float) Short.MAX_VALUE;
+        }
+        return sample;
+    }
+
+    /**
+     * Synthesizes a decaying tone with a few harmonics as a stand-in piano
+     * sample.
+     */
+    private float[] synthesizeSample(int rootNote) {
+        double frequency = 440.0 * Math.pow(2, (rootNote - 69) / 12.0);
+        float[] sample = new float[(int) (SAMPLE_RATE * SAMPLE_SECONDS)];
+        int attack = (int) (SAMPLE_RATE * 0.005);
+        for (int i = 0; i < sample.length; i++) {
+            double t = i / SAMPLE_RATE;
+            double value = 0;
+            for (int harmonic = 1; harmonic <= 6; harmonic++) {
+                double amplitude = 1.0 / Math.pow(harmonic, 1.5);
+                double decay = Math.exp(-t * (1.5 + harmonic));
+                value += amplitude * decay * Math.sin(2 * Math.PI * frequency * harmonic * t);
+            }
+            if (i < attack) {
+                value *= (double) i / attack;
+            }
+            sample[i] = (float) (value * 0.5);
+        }
+        return sample;
+    }
+
+    /**
+     * Validates if the note number is within the MIDI range.
+     *
+     * @param note the MIDI note number.
+     * @return true if valid, false otherwise.
+     */
+    private boolean isValidNoteNumber(int note) {
+        return note >= 0 && note <= 127;
+    }
+
+    /**
+     * Validates if the velocity is within the MIDI range.
+     *
+     * @param velocity the velocity value.
+     * @return true if valid, false otherwise.
+     */
+    private boolean isValidVelocity(int velocity) {
+        return velocity >= 0 && velocity <= 127;
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer queue of encoded commands. Zero
+     * marks an empty slot, so commands must never encode to zero.
+     */
+    private static class CommandQueue {
+        private final AtomicIntegerArray slots;
+        private final int mask;
+        private final AtomicLong tail;
+        private volatile long head;
+
+        /**
+         * Constructs a CommandQueue.
+         *
+         * @param capacity the number of slots, must be a power of two.
+         */
+        CommandQueue(int capacity) {
+            slots = new AtomicIntegerArray(capacity);
+            mask = capacity - 1;
+            tail = new AtomicLong();
+        }
+
+        /**
+         * Adds a command, called from any thread.
+         *
+         * @return false if the queue is full.
+         */
+        boolean offer(int command) {
+            while (true) {
+                long t = tail.get();
+                if (t - head >= slots.length()) {
+                    return false;
+                }
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots.set((int) (t & mask), command);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Removes the next command, called only from the mixer thread.
+         *
+         * @return the command, or 0 if none is ready.
+         */
+        int poll() {
+            int index = (int) (head & mask);
+            int command = slots.get(index);
+            if (command == 0) {
+                return 0;
+            }
+            slots.set(index, 0);
+            head = head + 1;
+            return command;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package Model;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.sound.midi.*;
+
+/**
+ * SoundbankLoader opens a synthesizer on a background thread and keeps only the
+ * instruments the curriculum uses resident. A small custom SF2 can replace the
+ * default soundbank, either through the "pitchperfect.soundbank" system
+ * property or by bundling /Assets/Soundbanks/piano.sf2. Setting
+ * "pitchperfect.soundbankFootprint" to true also reports the heap the
+ * instruments take, which forces garbage collections while loading.
+ */
+public class SoundbankLoader {
+    private static final String CUSTOM_SOUNDBANK = "/Assets/Soundbanks/piano.sf2";
+
+    private Synthesizer synthesizer;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a SoundbankLoader for the given synthesizer.
+     *
+     * @param synthesizer the synthesizer to open and load instruments into.
+     */
+    public SoundbankLoader(Synthesizer synthesizer) {
+        this.synthesizer = synthesizer;
+        ready = false;
+    }
+
+    /**
+     * Opens the synthesizer and loads the given programs on a background thread.
+     *
+     * @param programs the General MIDI programs to load.
+     * @param onReady  run on the loader thread once the programs are loaded, may
+     *                 be null.
+     */
+    public void loadInBackground(int[] programs, Runnable onReady) {
+        Thread loaderThread = new Thread(() -> {
+            try {
+                load(programs);
+                if (onReady != null) {
+                    onReady.run();
+                }
+                ready = true;
+            } catch (MidiUnavailableException e) {
+                System.err.println("Failed to open synthesizer: " + e.getMessage());
+            }
+        }, "Soundbank loader");
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+    }
+
+    /**
+     * Checks if the programs have been loaded.
+     *
+     * @return true once the synthesizer is ready to play.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Opens the synthesizer, unloads the default soundbank and loads only the
+     * requested programs. The resident instruments and load time are printed
+     * if the pitchperfect.stats property is set, and with the heap used at
+     * each step if the footprint was requested.
+     *
+     * @param programs the General MIDI programs to load.
+     * @throws MidiUnavailableException if the synthesizer cannot be opened.
+     */
+    private void load(int[] programs) throws MidiUnavailableException {
+        boolean measureHeap = Boolean.getBoolean("pitchperfect.soundbankFootprint");
+        long start = System.nanoTime();
+        long heapBefore = measureHeap ? usedHeap() : 0;
+        synthesizer.open();
+
+        Soundbank defaultSoundbank = synthesizer.getDefaultSoundbank();
+        int defaultResident = synthesizer.getLoadedInstruments().length;
+        long heapFullBank = measureHeap ? usedHeap() : 0;
+
+        if (defaultSoundbank != null) {
+            synthesizer.unloadAllInstruments(defaultSoundbank);
+        }
+        Soundbank soundbank = findSoundbank(defaultSoundbank);
+        if (soundbank != null) {
+            for (int program : programs) {
+                Instrument instrument = soundbank.getInstrument(new Patch(0, program));
+                if (instrument == null) {
+                    System.err.println("Soundbank has no instrument for program " + program);
+                } else {
+                    synthesizer.loadInstrument(instrument);
+                }
+            }
+        }
+        long loadMillis = (System.nanoTime() - start) / 1000000;
+        String report = "Soundbank: " + defaultResident + " -> " + synthesizer.getLoadedInstruments().length
+                + " resident instruments, loaded in " + loadMillis + " ms";
+        if (measureHeap) {
+            long heapSelective = usedHeap();
+            report += ", heap " + (heapFullBank - heapBefore) / 1024 + " KB -> "
+                    + (heapSelective - heapBefore) / 1024 + " KB";
+        }
+        if (measureHeap || Boolean.getBoolean("pitchperfect.stats")) {
+            System.out.println(report);
+        }
+    }
+
+    /**
+     * Finds the soundbank to load instruments from, preferring a custom SF2.
+     *
+     * @param defaultSoundbank the synthesizer's default soundbank.
+     * @return the soundbank to use.
+     */
+    private Soundbank findSoundbank(Soundbank defaultSoundbank) {
+        try {
+            String path = System.getProperty("pitchperfect.soundbank");
+            if (path != null) {
+                return MidiSystem.getSoundbank(new File(path));
+            }
+            InputStream resource = getClass().getResourceAsStream(CUSTOM_SOUNDBANK);
+            if (resource != null) {
+                return MidiSystem.getSoundbank(new BufferedInputStream(resource));
+            }
+        } catch (InvalidMidiDataException | IOException e) {
+            System.err.println("Failed to load custom soundbank, using default: " + e.getMessage());
+        }
+        return defaultSoundbank;
+    }
+
+    /**
+     * Returns the heap currently in use after requesting a collection.
+     *
+     * @return the used heap in bytes.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -7,14 +7,18 @@ package Model;
  * @version 1.1
  */
 public class Unit {
+    /** The General MIDI program for an acoustic grand piano. */
+    public static final int PIANO = 0;
+
     private int unitID;
     private String unitName;
     private String unitInfo;
     private Lesson[] lessonList;
     private Drill[] drillList;
+    private int program;
 
     /**
-     * Constructs a new Unit.
+     * Constructs a new Unit played on the piano.
      * 
      * @param unitID     the ID of the unit.
      * @param unitName   the name of the unit.
@@ -23,11 +27,30 @@ public class Unit {
      * @param drillList  the list of drills in the unit.
      */
     public Unit(int unitID, String unitName, String unitInfo, Lesson[] lessonList, Drill[] drillList) {
+        this(unitID, unitName, unitInfo, lessonList, drillList, PIANO);
+    }
+
+    /**
+     * Constructs a new Unit.
+     * 
+     * @param unitID     the ID of the unit.
+     * @param unitName   the name of the unit.
+     * @param unitInfo   the information about the unit.
+     * @param lessonList the list of lessons in the unit.
+     * @param drillList  the list of drills in the unit.
+     * @param program    the General MIDI program notes are echoed with (0-127).
+     * @throws IllegalArgumentException if the program is not a MIDI program.
+     */
+    public Unit(int unitID, String unitName, String unitInfo, Lesson[] lessonList, Drill[] drillList, int program) {
+        if (program < 0 || program > 127) {
+            throw new IllegalArgumentException("Not a MIDI program: " + program);
+        }
         this.unitID = unitID;
         this.lessonList = lessonList;
         this.drillList = drillList;
         this.unitInfo = unitInfo;
         this.unitName = unitName;
+        this.program = program;
     }
 
     /**
@@ -84,6 +107,15 @@ public class Unit {
         return lessonList.length;
     }
 
+    /**
+     * Gets the General MIDI program the unit's notes are echoed with.
+     * 
+     * @return the program number.
+     */
+    public int getProgram() {
+        return program;
+    }
+
     /**
      * Gets the number of drills in the unit.
      * 
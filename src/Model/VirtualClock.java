@@ -0,0 +1,49 @@
+package Model;
+
+/**
+ * A Clock whose time only moves when it is advanced. Used to simulate lessons
+ * and drills without waiting for their timers in real time.
+ */
+public class VirtualClock implements Clock {
+    private volatile long time;
+
+    /**
+     * Constructs a VirtualClock starting at time zero.
+     */
+    public VirtualClock() {
+        time = 0;
+    }
+
+    /**
+     * Returns the current virtual time.
+     *
+     * @return the current time in nanoseconds
+     */
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param nanos how far to move the clock in nanoseconds
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public void advance(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Virtual time cannot move backwards");
+        }
+        time += nanos;
+    }
+
+    /**
+     * Moves the clock forward to the given time.
+     *
+     * @param newTime the time to move to in nanoseconds
+     * @throws IllegalArgumentException if newTime is before the current time
+     */
+    public void advanceTo(long newTime) {
+        advance(newTime - time);
+    }
+}
@@ -0,0 +1,182 @@
+package View;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * The AssetPreloader decodes every image under /Assets into an ImageCache on a
+ * pool of background threads, so no flashcard has to wait for an image to be
+ * decoded the first time it is shown. The glyphs are then packed into the
+ * TextureAtlas. Assets are found in the assets
+ * directory when running from classes, or in the jar when running from one.
+ */
+public class AssetPreloader {
+    private static final String ASSETS = "/Assets";
+
+    private final ImageCache cache;
+    private final AtomicInteger loaded;
+    private volatile int total;
+    private volatile boolean done;
+
+    /**
+     * Constructs an AssetPreloader.
+     *
+     * @param cache the cache to decode images into
+     */
+    public AssetPreloader(ImageCache cache) {
+        this.cache = cache;
+        loaded = new AtomicInteger();
+    }
+
+    /**
+     * Starts decoding every image asset in the background. The listener is
+     * called from a pool thread after each image, and once with nothing left
+     * when there are no images at all.
+     *
+     * @param onProgress run after each image is decoded
+     */
+    public void start(Runnable onProgress) {
+        List<String> paths = findImages();
+        total = paths.size();
+        if (paths.isEmpty()) {
+            done = true;
+            onProgress.run();
+            return;
+        }
+
+        int threads = Math.max(1, Math.min(paths.size(), Runtime.getRuntime().availableProcessors() - 1));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "AssetPreloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        for (String path : paths) {
+            pool.execute(() -> {
+                try {
+                    cache.get(path);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to preload " + path + ": " + e.getMessage());
+                }
+                if (loaded.incrementAndGet() == total) {
+                    // Packed once every glyph is decoded, before anything can show one
+                    try {
+                        TextureAtlas.getShared();
+                    } catch (RuntimeException e) {
+                        System.err.println("Failed to pack texture atlas: " + e.getMessage());
+                    }
+                    done = true;
+                    if (Boolean.getBoolean("pitchperfect.stats")) {
+                        report(start);
+                    }
+                }
+                onProgress.run();
+            });
+        }
+        // Lets the pool's threads exit once the queued images are decoded
+        pool.shutdown();
+    }
+
+    /**
+     * Returns the number of images decoded so far.
+     *
+     * @return the number of decoded images
+     */
+    public int getLoaded() {
+        return loaded.get();
+    }
+
+    /**
+     * Returns the number of images being preloaded.
+     *
+     * @return the total number of images
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Checks if every image has been decoded.
+     *
+     * @return true once preloading has finished
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Prints the preload time and the memory used by the decoded images.
+     *
+     * @param start the System.nanoTime() value when preloading started
+     */
+    private void report(long start) {
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        System.out.println(String.format("Preloaded %d images in %d ms, %.1f MB decoded, %.1f MB heap in use",
+                total, (System.nanoTime() - start) / 1000000, cache.getBytes() / 1048576.0, heap / 1048576.0));
+    }
+
+    /**
+     * Lists the asset paths of every image under /Assets.
+     *
+     * @return the image paths, for example "/Assets/trebleStaff.png"
+     */
+    private List<String> findImages() {
+        List<String> paths = new ArrayList<>();
+        URL assets = AssetPreloader.class.getResource(ASSETS);
+        if (assets == null) {
+            System.err.println("No assets found to preload");
+            return paths;
+        }
+        try {
+            if ("jar".equals(assets.getProtocol())) {
+                JarURLConnection connection = (JarURLConnection) assets.openConnection();
+                // Uncached, so closing it does not close the jar classes are loaded from
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.startsWith(ASSETS.substring(1) + "/") && isImage(name)) {
+                            paths.add("/" + name);
+                        }
+                    }
+                }
+            } else {
+                Path root = Paths.get(assets.toURI());
+                try (Stream<Path> files = Files.walk(root)) {
+                    files.filter(file -> isImage(file.toString()))
+                            .forEach(file -> paths.add(ASSETS + "/" + root.relativize(file).toString().replace('\\', '/')));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            System.err.println("Failed to list assets: " + e.getMessage());
+        }
+        return paths;
+    }
+
+    /**
+     * Checks if a file name is an image JavaFX can decode.
+     *
+     * @param name the file name
+     * @return true for PNG, JPEG and GIF files
+     */
+    private static boolean isImage(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".png") || lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".gif");
+    }
+}
@@ -0,0 +1,53 @@
+package View;
+
+/**
+ * One click on a button, as queued for the command parser. The button's
+ * command is read when the click happens, so a page turn or a recycled button
+ * rebinding the command before the click is dispatched cannot change what the
+ * click does.
+ */
+public final class ButtonClick {
+    private final ButtonComponent button;
+    private final Command command;
+    private final long time;
+
+    /**
+     * Constructs a ButtonClick.
+     *
+     * @param button  the button that was clicked
+     * @param command the button's command at the time of the click
+     * @param time    the System.nanoTime() value of the click
+     */
+    public ButtonClick(ButtonComponent button, Command command, long time) {
+        this.button = button;
+        this.command = command;
+        this.time = time;
+    }
+
+    /**
+     * Returns the button that was clicked.
+     *
+     * @return the button
+     */
+    public ButtonComponent getButton() {
+        return button;
+    }
+
+    /**
+     * Returns the command the button had when it was clicked.
+     *
+     * @return the command
+     */
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the time of the click.
+     *
+     * @return the System.nanoTime() value of the click
+     */
+    public long getTime() {
+        return time;
+    }
+}
@@ -1,5 +1,6 @@
 package View;
 
+import java.util.concurrent.BlockingQueue;
 import javafx.scene.control.Button;
 
 /**
@@ -7,27 +8,38 @@ import javafx.scene.control.Button;
  */
 public class ButtonComponent extends ViewComponent
 {
+    private static final int DIRTY_TEXT = FIRST_HELPER_FLAG;
+    private static final int DIRTY_STYLE = FIRST_HELPER_FLAG << 1;
+
     private Button thisObject;
+    private final BlockingQueue<ButtonClick> clicks;
+    private String text;
+    private String style;
     private int id;
-    private boolean hasMessage;
-    private String message;
+    private volatile Command command;
+
+    /**
+     * Constructs a ButtonComponent that publishes its clicks to the given
+     * queue.
+     * 
+     * @param clicks the queue the command parser waits on
+     */
+    public ButtonComponent(BlockingQueue<ButtonClick> clicks)
+    {
+        this.clicks = clicks;
+    }
 
     /**
-     * Constructs a ButtonComponent.
+     * Queues a click for the command parser, which then dispatches the command
+     * the button has now. Does nothing if the button has no command.
      */
-    public ButtonComponent()
+    public void click()
     {
-        //when clicked, controller will request button id and then
-        //translate this buttons id to the action required when this
-        //button is clicked
-        hasMessage=false;
-        thisObject = new Button();
-
-        message = "";
-        // Buttons action on click
-        thisObject.setOnAction(event -> {
-            hasMessage = true;
-        });
+        Command clicked = command;
+        if (clicked != null)
+        {
+            clicks.offer(new ButtonClick(this, clicked, System.nanoTime()));
+        }
     }
 
     /**
@@ -38,7 +50,7 @@ public class ButtonComponent extends ViewComponent
     @Override
     protected void setHiddenHelper(boolean isHidden)
     {
-        thisObject.setVisible(!isHidden);
+        getObject().setVisible(!isHidden);
     }
 
     /**
@@ -49,41 +61,43 @@ public class ButtonComponent extends ViewComponent
     @Override
     protected void updateXYHelper(int[] xyCords)
     {
-        thisObject.setPrefWidth(xyCords[1]);
-        thisObject.setPrefHeight(xyCords[3]);
-        thisObject.setLayoutX(xyCords[0]);
-        thisObject.setLayoutY(xyCords[2]);
+        Button button = getObject();
+        button.setPrefWidth(xyCords[1]);
+        button.setPrefHeight(xyCords[3]);
+        button.setLayoutX(xyCords[0]);
+        button.setLayoutY(xyCords[2]);
     }
 
     /**
-     * Checks if the button has a message.
+     * Gets the command of the button.
      * 
-     * @return true if the button has a message, false otherwise
+     * @return the compiled command, or null if none has been set
      */
-    public boolean hasMessage()
+    public Command getCommand()
     {
-        return hasMessage;
+        return command;
     }
 
     /**
-     * Gets the message of the button.
+     * Sets the message of the button, compiling it into the command dispatched
+     * when the button is clicked.
      * 
-     * @return the message of the button
+     * @param message the message to set
+     * @throws IllegalArgumentException if the message is not a valid command
      */
-    public String getMessage()
+    public void setMessage(String message)
     {
-        hasMessage = false;
-        return message;
+        this.command = Command.compile(message);
     }
 
     /**
-     * Sets the message of the button.
+     * Sets the command of the button.
      * 
-     * @param message the message to set
+     * @param command the command to set
      */
-    public void setMessage(String message)
+    public void setCommand(Command command)
     {
-        this.message = message;
+        this.command = command;
     }
 
     /**
@@ -93,7 +107,11 @@ public class ButtonComponent extends ViewComponent
      */
     public void setStyle(String style)
     {
-        thisObject.setStyle(style);
+        synchronized (this)
+        {
+            this.style = style;
+        }
+        markDirty(DIRTY_STYLE);
     }
 
     /**
@@ -103,7 +121,50 @@ public class ButtonComponent extends ViewComponent
      */
     public void setText(String text)
     {
-        thisObject.setText(text);
+        synchronized (this)
+        {
+            this.text = text;
+        }
+        markDirty(DIRTY_TEXT);
+    }
+
+    /**
+     * Applies the pending text and style to the button.
+     * 
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags)
+    {
+        if ((flags & DIRTY_TEXT) != 0)
+        {
+            getObject().setText(text);
+        }
+        if ((flags & DIRTY_STYLE) != 0)
+        {
+            getObject().setStyle(style);
+        }
+    }
+
+    /**
+     * Clears the button's command and text.
+     */
+    @Override
+    protected void resetHelper()
+    {
+        command = null;
+        setText("");
+    }
+
+    /**
+     * Describes the button's text and command.
+     * 
+     * @return the text and command
+     */
+    @Override
+    protected String describeHelper()
+    {
+        return " text=" + text + " command=" + command;
     }
 
     /**
@@ -114,6 +175,14 @@ public class ButtonComponent extends ViewComponent
     @Override
     public Button getObject()
     {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null)
+        {
+            //when clicked, the button is queued for the command parser
+            //which then dispatches this buttons command
+            thisObject = new Button();
+            thisObject.setOnAction(event -> click());
+        }
         return thisObject;
     }
 }
@@ -0,0 +1,161 @@
+package View;
+
+/**
+ * An immutable command attached to a button. Commands are compiled once from
+ * their text form when the button is built, so clicks are dispatched on an
+ * opcode and primitive arguments without any parsing.
+ */
+public final class Command {
+    /**
+     * The operations a command can perform, with their text names and the
+     * number of integer arguments each one takes.
+     */
+    public enum Opcode {
+        SHOW_HOME_PAGE("showHomePage", 1),
+        SHOW_UNIT_SELECTION("showUnitSelection", 1),
+        SHOW_LESSON_SELECTION("showLessonSelection", 1),
+        SHOW_LESSON_COMPLETE("showLessonComplete", 1),
+        SHOW_DRILL_COMPLETE("showDrillComplete", 1),
+        SHOW_REVIEW_DRILL_COMPLETE("showReviewDrillComplete", 1),
+        SHOW_PRACTICE_COMPLETE("showPracticeComplete", 1),
+        LOAD_LESSON("loadLesson", 2),
+        LOAD_DRILL("loadDrill", 2),
+        LOAD_PRACTICE("loadPractice", 2),
+        PAGE_NEXT("pageNext", 1),
+        PAGE_PREV("pagePrev", 1),
+        REPLAY("replay", 0),
+        REPLAY_MISTAKE("replayMistake", 0),
+        BACK("back", 0);
+
+        private final String name;
+        private final int numArguments;
+
+        Opcode(String name, int numArguments) {
+            this.name = name;
+            this.numArguments = numArguments;
+        }
+
+        /**
+         * Returns the name used for this opcode in command text.
+         *
+         * @return the opcode's name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of arguments this opcode takes.
+         *
+         * @return the number of arguments
+         */
+        public int getNumArguments() {
+            return numArguments;
+        }
+
+        /**
+         * Finds the opcode with the given name.
+         *
+         * @param name the name used in command text
+         * @return the matching opcode
+         * @throws IllegalArgumentException if no opcode has that name
+         */
+        public static Opcode fromName(String name) {
+            for (Opcode opcode : values()) {
+                if (opcode.name.equals(name)) {
+                    return opcode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown command: " + name);
+        }
+    }
+
+    private final Opcode opcode;
+    private final int firstArgument;
+    private final int secondArgument;
+
+    /**
+     * Constructs a Command with up to two arguments.
+     *
+     * @param opcode         the operation to perform
+     * @param firstArgument  the first argument, or 0 if unused
+     * @param secondArgument the second argument, or 0 if unused
+     */
+    private Command(Opcode opcode, int firstArgument, int secondArgument) {
+        this.opcode = opcode;
+        this.firstArgument = firstArgument;
+        this.secondArgument = secondArgument;
+    }
+
+    /**
+     * Compiles a command from its text form, a space-separated opcode name
+     * followed by integer arguments, for example "loadLesson 3 12".
+     *
+     * @param text the command text
+     * @return the compiled command
+     * @throws IllegalArgumentException if the opcode is unknown, the number of
+     *                                  arguments is wrong or an argument is not
+     *                                  an integer
+     */
+    public static Command compile(String text) {
+        String[] args = text.trim().split(" ");
+        Opcode opcode = Opcode.fromName(args[0]);
+        if (args.length - 1 != opcode.getNumArguments()) {
+            throw new IllegalArgumentException("Command " + opcode.getName() + " takes "
+                    + opcode.getNumArguments() + " arguments: " + text);
+        }
+        int[] values = new int[2];
+        for (int i = 1; i < args.length; i++) {
+            try {
+                values[i - 1] = Integer.parseInt(args[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Command argument is not an integer: " + text);
+            }
+        }
+        return new Command(opcode, values[0], values[1]);
+    }
+
+    /**
+     * Returns the operation of this command.
+     *
+     * @return the opcode
+     */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * Returns the first argument of this command.
+     *
+     * @return the first argument, or 0 if the opcode takes none
+     */
+    public int getFirstArgument() {
+        return firstArgument;
+    }
+
+    /**
+     * Returns the second argument of this command.
+     *
+     * @return the second argument, or 0 if the opcode takes fewer than two
+     */
+    public int getSecondArgument() {
+        return secondArgument;
+    }
+
+    /**
+     * Returns the text form of this command.
+     *
+     * @return the command text
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(opcode.getName());
+        if (opcode.getNumArguments() > 0) {
+            text.append(' ').append(firstArgument);
+        }
+        if (opcode.getNumArguments() > 1) {
+            text.append(' ').append(secondArgument);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,245 @@
+package View;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * The FrameMonitor hooks the JavaFX pulse with an AnimationTimer and measures
+ * the time between frames. It also records, for every render batch, how long
+ * the batch waited for its pulse and how much it changed.
+ * Both are kept in histograms. Frames that take longer than the budget are
+ * logged with what the render batches changed in them. The most recent frames
+ * can be exported as CSV for offline analysis.
+ */
+public class FrameMonitor {
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    // Frames kept for export, ten minutes at 60 frames per second
+    private static final int MAX_FRAMES = 36000;
+    private static final int MAX_SLOW_FRAMES = 100;
+    // Distinct component types remembered per frame for slow frame reports
+    private static final int MAX_KINDS = 8;
+
+    private final long budgetNanos;
+    private final Histogram frameTimes;
+    private final Histogram queueDelays;
+    private final AnimationTimer timer;
+
+    // Ring buffer of recent frames
+    private final long[] frameStarts;
+    private final long[] frameDurations;
+    private final int[] frameBatches;
+    private final int[] frameMutations;
+    private final long[] frameQueueDelays;
+    private int numFrames;
+    private int nextFrame;
+
+    // What the render batches changed since the last pulse
+    private long lastPulse;
+    private int batches;
+    private int sceneChanges;
+    private int componentUpdates;
+    private long maxQueueDelay;
+    private final Class<?>[] kinds;
+    private int numKinds;
+
+    private final ArrayList<String> slowFrames;
+    private long numSlowFrames;
+    private TextComponent overlay;
+    private long lastOverlayUpdate;
+
+    /**
+     * Constructs a FrameMonitor. It does nothing until started.
+     *
+     * @param budgetNanos the longest a frame may take before it is reported,
+     *                    in nanoseconds
+     */
+    public FrameMonitor(long budgetNanos) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("Frame budget must be positive: " + budgetNanos + " ns");
+        }
+        this.budgetNanos = budgetNanos;
+        frameTimes = new Histogram(millis(4), millis(8), millis(12), 16667000L, millis(20), 33333000L,
+                millis(50), millis(100), millis(250));
+        queueDelays = new Histogram(millis(1) / 10, millis(1) / 2, millis(1), millis(2), millis(4), millis(8),
+                16667000L, 33333000L, millis(100));
+        frameStarts = new long[MAX_FRAMES];
+        frameDurations = new long[MAX_FRAMES];
+        frameBatches = new int[MAX_FRAMES];
+        frameMutations = new int[MAX_FRAMES];
+        frameQueueDelays = new long[MAX_FRAMES];
+        kinds = new Class<?>[MAX_KINDS];
+        slowFrames = new ArrayList<>();
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                pulse(now);
+            }
+        };
+    }
+
+    /**
+     * Starts measuring frames. Must be called on the FX thread.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops measuring frames. Must be called on the FX thread.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Shows a summary of the frame times in a text component, updated once a
+     * second.
+     *
+     * @param overlay the text component to show the summary in
+     */
+    public synchronized void setOverlay(TextComponent overlay) {
+        this.overlay = overlay;
+    }
+
+    /**
+     * Records a render batch. Called on the FX thread by the render scheduler.
+     *
+     * @param queueDelayNanos  how long the batch waited after it was posted
+     * @param numSceneChanges  the number of scene graph changes applied
+     * @param numComponents    the number of components updated
+     */
+    synchronized void recordBatch(long queueDelayNanos, int numSceneChanges, int numComponents) {
+        queueDelays.add(queueDelayNanos);
+        batches++;
+        sceneChanges += numSceneChanges;
+        componentUpdates += numComponents;
+        maxQueueDelay = Math.max(maxQueueDelay, queueDelayNanos);
+    }
+
+    /**
+     * Records the type of a component updated in the current frame.
+     *
+     * @param component the updated component
+     */
+    synchronized void recordUpdate(ViewComponent component) {
+        Class<?> kind = component.getClass();
+        for (int i = 0; i < numKinds; i++) {
+            if (kinds[i] == kind) {
+                return;
+            }
+        }
+        if (numKinds < MAX_KINDS) {
+            kinds[numKinds++] = kind;
+        }
+    }
+
+    /**
+     * Ends the frame that started at the previous pulse and starts the next.
+     *
+     * @param now the time of this pulse, in System.nanoTime() units
+     */
+    private synchronized void pulse(long now) {
+        if (lastPulse != 0) {
+            long duration = now - lastPulse;
+            frameTimes.add(duration);
+            frameStarts[nextFrame] = lastPulse;
+            frameDurations[nextFrame] = duration;
+            frameBatches[nextFrame] = batches;
+            frameMutations[nextFrame] = sceneChanges + componentUpdates;
+            frameQueueDelays[nextFrame] = maxQueueDelay;
+            nextFrame = (nextFrame + 1) % MAX_FRAMES;
+            numFrames = Math.min(numFrames + 1, MAX_FRAMES);
+            if (duration > budgetNanos) {
+                reportSlowFrame(duration);
+            }
+        }
+        lastPulse = now;
+        batches = 0;
+        sceneChanges = 0;
+        componentUpdates = 0;
+        maxQueueDelay = 0;
+        numKinds = 0;
+
+        if (overlay != null && now - lastOverlayUpdate >= 1000 * NANOS_PER_MILLI) {
+            lastOverlayUpdate = now;
+            overlay.setText(String.format("p50 %.1f ms  p99 %.1f ms  queue p99 %.1f ms  slow %d",
+                    frameTimes.getPercentile(50) / 1e6, frameTimes.getPercentile(99) / 1e6,
+                    queueDelays.getPercentile(99) / 1e6, numSlowFrames));
+            // Menus are brought to the front when loaded, so the overlay follows
+            overlay.toFront();
+        }
+    }
+
+    /**
+     * Logs a frame that went over budget with what was changed in it.
+     *
+     * @param duration the frame's duration in nanoseconds
+     */
+    private void reportSlowFrame(long duration) {
+        numSlowFrames++;
+        StringBuilder changed = new StringBuilder();
+        for (int i = 0; i < numKinds; i++) {
+            changed.append(i == 0 ? "" : ", ").append(kinds[i].getSimpleName());
+        }
+        String report = String.format("%.1f ms frame: %d batches, %d scene changes, %d component updates [%s], %.1f ms max queue delay",
+                duration / 1e6, batches, sceneChanges, componentUpdates, changed, maxQueueDelay / 1e6);
+        if (slowFrames.size() == MAX_SLOW_FRAMES) {
+            slowFrames.remove(0);
+        }
+        slowFrames.add(report);
+    }
+
+    /**
+     * Writes the recorded frames to a CSV file, oldest first, with one row per
+     * frame.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void exportCsv(Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("frame_start_ns,frame_ms,batches,mutations,max_queue_delay_ms,over_budget");
+            int first = (nextFrame - numFrames + MAX_FRAMES) % MAX_FRAMES;
+            for (int i = 0; i < numFrames; i++) {
+                int frame = (first + i) % MAX_FRAMES;
+                out.println(String.format("%d,%.3f,%d,%d,%.3f,%b", frameStarts[frame], frameDurations[frame] / 1e6,
+                        frameBatches[frame], frameMutations[frame], frameQueueDelays[frame] / 1e6,
+                        frameDurations[frame] > budgetNanos));
+            }
+        }
+    }
+
+    /**
+     * Returns the frame time and queue delay histograms and the most recent
+     * frames that went over budget.
+     *
+     * @return the statistics as a String
+     */
+    public synchronized String getStatistics() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Frame times (%d over the %.1f ms budget):%n", numSlowFrames, budgetNanos / 1e6));
+        text.append(frameTimes).append(System.lineSeparator());
+        text.append("Render batch queue delays:").append(System.lineSeparator());
+        text.append(queueDelays);
+        for (String slowFrame : slowFrames) {
+            text.append(System.lineSeparator()).append("  Slow frame: ").append(slowFrame);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Converts milliseconds to nanoseconds.
+     *
+     * @param millis the duration in milliseconds
+     * @return the duration in nanoseconds
+     */
+    private static long millis(long millis) {
+        return millis * NANOS_PER_MILLI;
+    }
+}
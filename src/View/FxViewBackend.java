@@ -0,0 +1,164 @@
+package View;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+/**
+ * The FxViewBackend shows the UI's components in a JavaFX window. Batches run
+ * on the FX thread from an AnimationTimer, at most one per pulse, so each
+ * frame shows the changes of a single batch. The timer only runs while
+ * batches are waiting, so an idle window does not keep requesting pulses.
+ */
+public class FxViewBackend implements ViewBackend {
+    private final Pane pane;
+    private final ConcurrentLinkedQueue<Runnable> batches;
+    private final AtomicBoolean pulseTimerIdle;
+    private final AnimationTimer pulseTimer;
+
+    /**
+     * Sets up the window's scene and shows the stage.
+     *
+     * @param primaryStage the primary stage for this application
+     */
+    public FxViewBackend(Stage primaryStage) {
+        batches = new ConcurrentLinkedQueue<>();
+        pulseTimerIdle = new AtomicBoolean(true);
+        pulseTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                runBatch();
+            }
+        };
+        pane = new Pane();
+        pane.setLayoutX(0);
+        pane.setLayoutY(0);
+        Scene scene = new Scene(pane, UI.SCREEN_WIDTH, UI.SCREEN_HEIGHT);
+        pane.setPrefSize(UI.SCREEN_WIDTH, UI.SCREEN_HEIGHT);
+
+        // Set up the Stage
+        primaryStage.setTitle("Pitch Perfect");
+        primaryStage.setScene(scene);
+        primaryStage.setResizable(false);
+        primaryStage.show();
+    }
+
+    /**
+     * Returns true, since components are shown in the window.
+     *
+     * @return true
+     */
+    @Override
+    public boolean hasDisplay() {
+        return true;
+    }
+
+    /**
+     * Queues a render batch for the next pulse, starting the pulse timer if it
+     * is idle.
+     *
+     * @param batch the batch to run
+     */
+    @Override
+    public void post(Runnable batch) {
+        batches.add(batch);
+        if (pulseTimerIdle.compareAndSet(true, false)) {
+            Platform.runLater(pulseTimer::start);
+        }
+    }
+
+    /**
+     * Runs the oldest queued batch, or stops the pulse timer if none is
+     * queued. Runs on the FX thread once per pulse.
+     */
+    private void runBatch() {
+        Runnable batch = batches.poll();
+        if (batch != null) {
+            batch.run();
+            return;
+        }
+        pulseTimer.stop();
+        pulseTimerIdle.set(true);
+        // A batch posted while stopping found the timer still running
+        if (!batches.isEmpty() && pulseTimerIdle.compareAndSet(true, false)) {
+            pulseTimer.start();
+        }
+    }
+
+    /**
+     * Adds a component's node to its group, or to the pane.
+     *
+     * @param component the component to add
+     * @param group     the group to place it in, or null for the pane
+     */
+    @Override
+    public void attach(ViewComponent component, GroupComponent group) {
+        if (group == null) {
+            pane.getChildren().add(component.getObject());
+        } else {
+            group.getObject().getChildren().add(component.getObject());
+        }
+    }
+
+    /**
+     * Removes a component's node from its group or the pane.
+     *
+     * @param component the component to remove
+     */
+    @Override
+    public void detach(ViewComponent component) {
+        Node node = component.getObject();
+        if (node.getParent() instanceof Group) {
+            ((Group) node.getParent()).getChildren().remove(node);
+        } else {
+            pane.getChildren().remove(node);
+        }
+    }
+
+    /**
+     * Moves a component's node in front of its siblings.
+     *
+     * @param component the component to move
+     */
+    @Override
+    public void toFront(ViewComponent component) {
+        component.getObject().toFront();
+    }
+
+    /**
+     * Moves a component's node behind its siblings.
+     *
+     * @param component the component to move
+     */
+    @Override
+    public void toBack(ViewComponent component) {
+        component.getObject().toBack();
+    }
+
+    /**
+     * Applies a component's pending state to its node.
+     *
+     * @param component the component whose state changed
+     */
+    @Override
+    public void apply(ViewComponent component) {
+        component.applyPending();
+    }
+
+    /**
+     * Starts the frame monitor's pulse timer. Runs on the FX thread.
+     *
+     * @param monitor the frame monitor to start
+     */
+    @Override
+    public void startFrameMonitor(FrameMonitor monitor) {
+        monitor.start();
+    }
+}
@@ -0,0 +1,53 @@
+package View;
+
+import javafx.scene.Group;
+
+/**
+ * A component that groups the nodes of a screen under one JavaFX Group.
+ * Components created as descendants of a group are placed inside it, so the
+ * whole screen is shown, hidden or brought to the front with a single change
+ * to the group. Children keep their own visibility inside the group.
+ */
+public class GroupComponent extends ViewComponent {
+    private Group thisObject;
+
+    /**
+     * Constructs a new, empty GroupComponent.
+     */
+    public GroupComponent() {
+    }
+
+    /**
+     * Sets the visibility of the group and everything in it.
+     *
+     * @param isHidden true to hide the group, false to show it
+     */
+    @Override
+    protected void setHiddenHelper(boolean isHidden) {
+        getObject().setVisible(!isHidden);
+    }
+
+    /**
+     * Does nothing, since children are positioned in screen coordinates and
+     * move with the group through updateXY.
+     *
+     * @param xyCords the coordinates of the group
+     */
+    @Override
+    protected void updateXYHelper(int[] xyCords) {
+    }
+
+    /**
+     * Returns the Group of this component.
+     *
+     * @return the Group object
+     */
+    @Override
+    public Group getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            thisObject = new Group();
+        }
+        return thisObject;
+    }
+}
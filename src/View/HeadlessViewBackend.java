@@ -0,0 +1,197 @@
+package View;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The HeadlessViewBackend runs the UI without a display. No JavaFX nodes are
+ * created. Posted batches wait until flush() runs them on the caller's
+ * thread, and pending state is taken from components without being drawn.
+ * When recording, every change is kept as a line of text, so the view
+ * operations of two runs can be compared with diff.
+ */
+public class HeadlessViewBackend implements ViewBackend {
+    private final boolean recording;
+    private final ArrayDeque<Runnable> batches;
+    private final List<String> operations;
+
+    // Instrumentation
+    private long batchesRun;
+    private long attaches;
+    private long detaches;
+    private long orderChanges;
+    private long applies;
+
+    /**
+     * Constructs a HeadlessViewBackend.
+     *
+     * @param recording true to keep a line of text for every view operation
+     */
+    public HeadlessViewBackend(boolean recording) {
+        this.recording = recording;
+        batches = new ArrayDeque<>();
+        operations = new ArrayList<>();
+    }
+
+    /**
+     * Returns false, since nothing is shown.
+     *
+     * @return false
+     */
+    @Override
+    public boolean hasDisplay() {
+        return false;
+    }
+
+    /**
+     * Queues a render batch until the next flush.
+     *
+     * @param batch the batch to run
+     */
+    @Override
+    public synchronized void post(Runnable batch) {
+        batches.add(batch);
+    }
+
+    /**
+     * Runs every queued render batch, including any posted while running them.
+     */
+    public void flush() {
+        Runnable batch;
+        while ((batch = nextBatch()) != null) {
+            batch.run();
+            batchesRun++;
+        }
+    }
+
+    /**
+     * Takes the next queued batch.
+     *
+     * @return the batch, or null if there is none
+     */
+    private synchronized Runnable nextBatch() {
+        return batches.poll();
+    }
+
+    /**
+     * Records a component joining the scene.
+     *
+     * @param component the component to add
+     * @param group     the group to place it in, or null for the top level
+     */
+    @Override
+    public void attach(ViewComponent component, GroupComponent group) {
+        attaches++;
+        if (recording) {
+            record("attach " + component.getClass().getSimpleName() + " " + component.getID() + " to "
+                    + (group == null ? "root" : String.valueOf(group.getID())));
+        }
+    }
+
+    /**
+     * Records a component leaving the scene.
+     *
+     * @param component the component to remove
+     */
+    @Override
+    public void detach(ViewComponent component) {
+        detaches++;
+        if (recording) {
+            record("detach " + component.getClass().getSimpleName() + " " + component.getID());
+        }
+    }
+
+    /**
+     * Records a component moving in front of its siblings.
+     *
+     * @param component the component to move
+     */
+    @Override
+    public void toFront(ViewComponent component) {
+        orderChanges++;
+        if (recording) {
+            record("front " + component.getID());
+        }
+    }
+
+    /**
+     * Records a component moving behind its siblings.
+     *
+     * @param component the component to move
+     */
+    @Override
+    public void toBack(ViewComponent component) {
+        orderChanges++;
+        if (recording) {
+            record("back " + component.getID());
+        }
+    }
+
+    /**
+     * Takes a component's pending state and records the state it would be
+     * drawn with.
+     *
+     * @param component the component whose state changed
+     */
+    @Override
+    public void apply(ViewComponent component) {
+        component.takePending();
+        applies++;
+        if (recording) {
+            record("apply " + component.describe());
+        }
+    }
+
+    /**
+     * Does nothing, since there are no frames without a display.
+     *
+     * @param monitor the frame monitor
+     */
+    @Override
+    public void startFrameMonitor(FrameMonitor monitor) {
+    }
+
+    /**
+     * Keeps an operation if recording.
+     *
+     * @param operation the operation as text
+     */
+    private synchronized void record(String operation) {
+        if (recording) {
+            operations.add(operation);
+        }
+    }
+
+    /**
+     * Returns the recorded operations, oldest first.
+     *
+     * @return a copy of the recorded operations
+     */
+    public synchronized List<String> getOperations() {
+        return new ArrayList<>(operations);
+    }
+
+    /**
+     * Writes the recorded operations to a file, one per line.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void writeOperations(Path path) throws IOException {
+        Files.write(path, operations);
+    }
+
+    /**
+     * Returns a summary of the view operations the batches contained.
+     *
+     * @return the statistics as a String
+     */
+    public String getStatistics() {
+        return String.format("Headless view: %d batches, %d attaches, %d detaches, %d z-order changes, %d component updates",
+                batchesRun, attaches, detaches, orderChanges, applies);
+    }
+}
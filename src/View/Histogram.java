@@ -0,0 +1,103 @@
+package View;
+
+/**
+ * A Histogram counts durations into fixed buckets, so recording a value never
+ * allocates. Each bucket holds the values up to its upper bound, and a last
+ * bucket holds everything above the highest bound.
+ */
+public class Histogram {
+    private final long[] upperBoundsNanos;
+    private final long[] counts;
+    private long total;
+    private long sumNanos;
+    private long maxNanos;
+
+    /**
+     * Constructs an empty Histogram.
+     *
+     * @param upperBoundsNanos the upper bound of each bucket in nanoseconds, in
+     *                         increasing order
+     * @throws IllegalArgumentException if the bounds are not increasing
+     */
+    public Histogram(long... upperBoundsNanos) {
+        for (int i = 1; i < upperBoundsNanos.length; i++) {
+            if (upperBoundsNanos[i] <= upperBoundsNanos[i - 1]) {
+                throw new IllegalArgumentException("Histogram bounds must be increasing");
+            }
+        }
+        this.upperBoundsNanos = upperBoundsNanos.clone();
+        counts = new long[upperBoundsNanos.length + 1];
+    }
+
+    /**
+     * Counts a value in its bucket.
+     *
+     * @param nanos the value in nanoseconds
+     */
+    public synchronized void add(long nanos) {
+        int bucket = 0;
+        while (bucket < upperBoundsNanos.length && nanos > upperBoundsNanos[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        total++;
+        sumNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Returns the number of values counted.
+     *
+     * @return the number of values
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding a percentile, or the largest
+     * value counted if the percentile falls in the last bucket.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the bound in nanoseconds, or 0 if nothing has been counted
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < upperBoundsNanos.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundsNanos[i], maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Returns the count and share of values in each bucket, one bucket per
+     * line, followed by the mean and maximum.
+     *
+     * @return the histogram as a String
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder();
+        long lower = 0;
+        for (int i = 0; i < counts.length; i++) {
+            String range = i < upperBoundsNanos.length
+                    ? String.format("%7.1f - %7.1f ms", lower / 1e6, upperBoundsNanos[i] / 1e6)
+                    : String.format("%7.1f ms and up  ", lower / 1e6);
+            double share = total == 0 ? 0 : 100.0 * counts[i] / total;
+            text.append(String.format("  %s: %8d (%5.1f%%)%n", range, counts[i], share));
+            if (i < upperBoundsNanos.length) {
+                lower = upperBoundsNanos[i];
+            }
+        }
+        double mean = total == 0 ? 0 : sumNanos / 1e6 / total;
+        text.append(String.format("  %d values, %.2f ms mean, %.2f ms max", total, mean, maxNanos / 1e6));
+        return text.toString();
+    }
+}
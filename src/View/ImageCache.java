@@ -0,0 +1,168 @@
+package View;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+
+/**
+ * The ImageCache keeps decoded images keyed by their asset path, so an asset
+ * shown on many flashcards is only read and decoded once. The cache is bounded
+ * by the decoded size of its images (4 bytes per pixel) and evicts the least
+ * recently used image when it is full. It is safe to use from any thread.
+ */
+public class ImageCache {
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final ImageCache shared = new ImageCache(
+            Long.getLong("pitchperfect.imageCacheBytes", DEFAULT_MAX_BYTES));
+
+    private final LinkedHashMap<String, Image> images;
+    private final long maxBytes;
+    private long bytes;
+
+    // Instrumentation
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs an empty ImageCache.
+     *
+     * @param maxBytes the most decoded bytes to keep before evicting images
+     */
+    public ImageCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Image cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        // Access order, so iteration starts at the least recently used image
+        images = new LinkedHashMap<>(32, 0.75f, true);
+        bytes = 0;
+    }
+
+    /**
+     * Returns the cache shared by every image component.
+     *
+     * @return the shared ImageCache
+     */
+    public static ImageCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Returns the decoded image for an asset path, decoding and caching it if it
+     * is not cached yet.
+     *
+     * @param path the asset path, for example "/Assets/trebleStaff.png"
+     * @return the decoded image
+     * @throws IllegalArgumentException if there is no asset at the path
+     */
+    public Image get(String path) {
+        synchronized (this) {
+            Image image = images.get(path);
+            if (image != null) {
+                hits++;
+                return image;
+            }
+            misses++;
+        }
+
+        // Decoded outside the lock so other threads can still read the cache
+        Image image = decode(path);
+        synchronized (this) {
+            Image existing = images.get(path);
+            if (existing != null) {
+                return existing;
+            }
+            images.put(path, image);
+            bytes += sizeOf(image);
+            evict();
+            return image;
+        }
+    }
+
+    /**
+     * Removes an image from the cache, for images that are kept elsewhere.
+     *
+     * @param path the asset path
+     */
+    public synchronized void remove(String path) {
+        Image image = images.remove(path);
+        if (image != null) {
+            bytes -= sizeOf(image);
+        }
+    }
+
+    /**
+     * Checks if an asset is cached, without changing its place in the LRU order.
+     *
+     * @param path the asset path
+     * @return true if the decoded image is cached
+     */
+    public synchronized boolean contains(String path) {
+        return images.containsKey(path);
+    }
+
+    /**
+     * Returns the decoded bytes currently held by the cache.
+     *
+     * @return the size of the cached images in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns a summary of the cache's size and hit rate.
+     *
+     * @return the statistics as a String
+     */
+    public synchronized String getStatistics() {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+        return String.format("Image cache: %d images, %.1f of %.1f MB, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                images.size(), bytes / 1048576.0, maxBytes / 1048576.0, hits, misses, hitRate, evictions);
+    }
+
+    /**
+     * Removes the least recently used images until the cache fits its bound.
+     * The most recent image is always kept, even if it is larger than the bound.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Image>> iterator = images.entrySet().iterator();
+        while (bytes > maxBytes && images.size() > 1 && iterator.hasNext()) {
+            Image image = iterator.next().getValue();
+            iterator.remove();
+            bytes -= sizeOf(image);
+            evictions++;
+        }
+    }
+
+    /**
+     * Reads and decodes an asset.
+     *
+     * @param path the asset path
+     * @return the decoded image
+     * @throws IllegalArgumentException if there is no asset at the path
+     */
+    private Image decode(String path) {
+        URL url = ImageCache.class.getResource(path);
+        if (url == null) {
+            throw new IllegalArgumentException("No image asset at " + path);
+        }
+        return new Image(url.toExternalForm());
+    }
+
+    /**
+     * Returns the decoded size of an image, at 4 bytes per pixel.
+     *
+     * @param image the image
+     * @return the size in bytes
+     */
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
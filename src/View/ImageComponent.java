@@ -1,20 +1,33 @@
 package View;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
 /**
  * The ImageComponent class represents a view component that displays an image.
+ * A component starts out empty. The image it is given is only looked up in the
+ * shared ImageCache and bound to the ImageView once the component is shown, so
+ * hidden components hold no image of their own. Glyphs packed in the
+ * TextureAtlas are shown through a viewport on the atlas image.
  */
 public class ImageComponent extends ViewComponent {
+    private static final int DIRTY_IMAGE = FIRST_HELPER_FLAG;
+    // Asset paths already found on the classpath, so each is looked up once
+    private static final Set<String> knownAssets = ConcurrentHashMap.newKeySet();
+
     private ImageView thisObject;
+    private String pendingPath;
+    private String boundPath;
+    private Image boundImage;
 
     /**
-     * Constructs an ImageComponent with a default image.
+     * Constructs an ImageComponent with no image.
      */
     public ImageComponent() {
-        // setting image to empty path is temporary and should be changed
-        thisObject = new ImageView(new Image("/Assets/check.png"));
     }
 
     /**
@@ -24,7 +37,7 @@ public class ImageComponent extends ViewComponent {
      */
     @Override
     protected void setHiddenHelper(boolean isHidden) {
-        thisObject.setVisible(!isHidden);
+        getObject().setVisible(!isHidden);
     }
 
     /**
@@ -35,10 +48,30 @@ public class ImageComponent extends ViewComponent {
      */
     @Override
     protected void updateXYHelper(int[] xyCords) {
-        thisObject.setX(xyCords[0]);
-        thisObject.setY(xyCords[2]);
-        thisObject.setFitWidth(xyCords[1] - xyCords[0]);
-        thisObject.setFitHeight(xyCords[3] - xyCords[2]);
+        ImageView view = getObject();
+        view.setX(xyCords[0]);
+        view.setY(xyCords[2]);
+        view.setFitWidth(xyCords[1] - xyCords[0]);
+        view.setFitHeight(xyCords[3] - xyCords[2]);
+    }
+
+    /**
+     * Forgets the pending image. The bound image is kept until a new one is
+     * shown, since it is shared with the cache.
+     */
+    @Override
+    protected synchronized void resetHelper() {
+        pendingPath = null;
+    }
+
+    /**
+     * Describes the image shown.
+     * 
+     * @return the asset path of the image
+     */
+    @Override
+    protected String describeHelper() {
+        return " image=" + pendingPath;
     }
 
     /**
@@ -48,16 +81,57 @@ public class ImageComponent extends ViewComponent {
      */
     @Override
     public ImageView getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            thisObject = new ImageView();
+        }
         return thisObject;
     }
 
     /**
      * Changes the image displayed by this component.
      * 
-     * @param url the URL of the new image
+     * @param url the asset path of the new image
+     * @throws IllegalArgumentException if there is no asset at the path
      */
     public void changeImage(String url) {
-        // Load the new image and set it on the existing ImageView
-        thisObject.setImage(new Image(getClass().getResource(url).toExternalForm()));
+        if (!knownAssets.contains(url)) {
+            if (getClass().getResource(url) == null) {
+                throw new IllegalArgumentException("No image asset at " + url);
+            }
+            knownAssets.add(url);
+        }
+        // Bound to the existing ImageView in the first batch where it is visible
+        synchronized (this) {
+            pendingPath = url;
+        }
+        markDirty(DIRTY_IMAGE);
+    }
+
+    /**
+     * Binds the pending image to the ImageView if the component is visible and
+     * is not already showing it.
+     * 
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags) {
+        if ((flags & (DIRTY_IMAGE | DIRTY_HIDDEN)) == 0 || getHidden() || pendingPath == null) {
+            return;
+        }
+        if (pendingPath.equals(boundPath)) {
+            return;
+        }
+        Rectangle2D region = TextureAtlas.getShared().getRegion(pendingPath);
+        Image image = region != null ? TextureAtlas.getShared().getImage() : ImageCache.getShared().get(pendingPath);
+        if (image != boundImage) {
+            getObject().setImage(image);
+            boundImage = image;
+            TextureAtlas.countImageSwitch();
+        } else {
+            TextureAtlas.countViewportSwitch();
+        }
+        getObject().setViewport(region);
+        boundPath = pendingPath;
     }
 }
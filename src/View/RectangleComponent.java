@@ -7,19 +7,41 @@ import javafx.scene.paint.Color;
  * A component that represents a rectangle in the view.
  */
 public class RectangleComponent extends ViewComponent {
+    private static final int DIRTY_COLOR = FIRST_HELPER_FLAG;
+
     private Rectangle thisObject;
+    private Color color;
 
     /**
      * Constructs a new RectangleComponent.
      */
     public RectangleComponent() {
-        thisObject = new Rectangle();
         System.out.println("Rectangle created");
     }
     
+    /**
+     * Sets the fill color of the rectangle.
+     * 
+     * @param color the color to fill the rectangle with
+     */
     public void setColor(Color color)
     {
-        thisObject.setFill(color);
+        synchronized (this) {
+            this.color = color;
+        }
+        markDirty(DIRTY_COLOR);
+    }
+
+    /**
+     * Applies the pending fill color to the rectangle.
+     * 
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags) {
+        if ((flags & DIRTY_COLOR) != 0) {
+            getObject().setFill(color);
+        }
     }
 
     /**
@@ -29,7 +51,7 @@ public class RectangleComponent extends ViewComponent {
      */
     @Override
     protected void setHiddenHelper(boolean isHidden) {
-        thisObject.setVisible(!isHidden);
+        getObject().setVisible(!isHidden);
     }
 
     /**
@@ -40,10 +62,11 @@ public class RectangleComponent extends ViewComponent {
      */
     @Override
     protected void updateXYHelper(int[] xyCords) {
-        thisObject.setX(xyCords[0]);
-        thisObject.setY(xyCords[2]);
-        thisObject.setWidth(xyCords[1] - xyCords[0]);
-        thisObject.setHeight(xyCords[3] - xyCords[2]);
+        Rectangle rectangle = getObject();
+        rectangle.setX(xyCords[0]);
+        rectangle.setY(xyCords[2]);
+        rectangle.setWidth(xyCords[1] - xyCords[0]);
+        rectangle.setHeight(xyCords[3] - xyCords[2]);
     }
 
     /**
@@ -53,6 +76,10 @@ public class RectangleComponent extends ViewComponent {
      */
     @Override
     public Rectangle getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            thisObject = new Rectangle();
+        }
         return thisObject;
     }
 }
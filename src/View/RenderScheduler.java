@@ -0,0 +1,342 @@
+package View;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.collections.ObservableList;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.layout.Pane;
+
+/**
+ * The RenderScheduler collects view mutations made from any thread and applies
+ * them in a single batch on the view thread of its ViewBackend. With a display
+ * that is the FX thread, where FxViewBackend runs one batch per pulse.
+ * Mutations made while a batch is applied go into the next one. Components
+ * record their pending state and are queued at most once per batch, so
+ * repeated writes to the same component collapse to the last one. Ordered
+ * scene graph changes, such as adding nodes or changing z-order, are queued
+ * separately and applied first. Z-order follows the components' order ranks.
+ * Every group and pane keeps its children in rank order, so at the end of a
+ * batch only the nodes whose rank changed, or that were just added, are
+ * taken out and put back where their rank belongs. Equal ranks keep the order
+ * they were placed in.
+ */
+public class RenderScheduler {
+    private final ConcurrentLinkedQueue<ViewComponent> dirtyComponents;
+    private final ConcurrentLinkedQueue<Runnable> sceneChanges;
+    private final ViewBackend backend;
+    private final AtomicBoolean batchScheduled;
+    private volatile long batchRequestedAt;
+    private volatile FrameMonitor frameMonitor;
+    // Component of each node, for looking up the ranks of a node's siblings
+    private final ConcurrentHashMap<Node, ViewComponent> components;
+    // Components to put back in rank order in this batch, and the child lists
+    // their nodes were taken out of
+    private final ArrayList<ViewComponent> reorderComponents;
+    private final ArrayList<ObservableList<Node>> reorderLists;
+
+    // Instrumentation
+    private final AtomicLong requestedMutations;
+    private long batches;
+    private long appliedMutations;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private long totalApplyNanos;
+    private long maxApplyNanos;
+    private long rankChanges;
+    private long movedNodes;
+    private long totalReorderNanos;
+    private long maxReorderNanos;
+
+    /**
+     * Constructs a new RenderScheduler.
+     *
+     * @param backend the backend batches are run on and applied to
+     */
+    public RenderScheduler(ViewBackend backend) {
+        this.backend = backend;
+        dirtyComponents = new ConcurrentLinkedQueue<>();
+        sceneChanges = new ConcurrentLinkedQueue<>();
+        batchScheduled = new AtomicBoolean(false);
+        requestedMutations = new AtomicLong();
+        components = new ConcurrentHashMap<>();
+        reorderComponents = new ArrayList<>();
+        reorderLists = new ArrayList<>();
+    }
+
+    /**
+     * Reports every batch to a frame monitor.
+     *
+     * @param frameMonitor the monitor, or null to stop reporting
+     */
+    void setFrameMonitor(FrameMonitor frameMonitor) {
+        this.frameMonitor = frameMonitor;
+    }
+
+    /**
+     * Adds a component to the scene in the next batch.
+     *
+     * @param component the component to add
+     * @param group     the group to place it in, or null for the top level
+     */
+    void attach(ViewComponent component, GroupComponent group) {
+        submit(() -> {
+            backend.attach(component, group);
+            if (backend.hasDisplay()) {
+                // Registered and placed by rank, since it was added at the end
+                components.put(component.getObject(), component);
+                orderChanged(component);
+            }
+        });
+    }
+
+    /**
+     * Removes a component from the scene in the next batch, forgetting its
+     * node. A pooled component is registered again when it is reattached.
+     *
+     * @param component the component to remove
+     */
+    void detach(ViewComponent component) {
+        submit(() -> {
+            backend.detach(component);
+            if (backend.hasDisplay()) {
+                // Dropped so destroyed components are not kept reachable
+                components.remove(component.getObject());
+            }
+        });
+    }
+
+    /**
+     * Moves a component in front of its siblings in the next batch.
+     *
+     * @param component the component to move
+     */
+    void toFront(ViewComponent component) {
+        submit(() -> backend.toFront(component));
+    }
+
+    /**
+     * Moves a component behind its siblings in the next batch.
+     *
+     * @param component the component to move
+     */
+    void toBack(ViewComponent component) {
+        submit(() -> backend.toBack(component));
+    }
+
+    /**
+     * Records that a component's order rank changed, so its node is moved to
+     * its place at the end of the batch. Runs on the FX thread.
+     *
+     * @param component the component whose rank changed
+     */
+    void orderChanged(ViewComponent component) {
+        if (component.getObject().getParent() != null) {
+            reorderComponents.add(component);
+        }
+    }
+
+    /**
+     * Counts a mutation requested by a component, whether or not it is later
+     * coalesced with another write.
+     */
+    void countMutation() {
+        requestedMutations.incrementAndGet();
+    }
+
+    /**
+     * Queues a component whose pending state changed since the last batch.
+     *
+     * @param component the component to apply in the next batch
+     */
+    void markDirty(ViewComponent component) {
+        dirtyComponents.add(component);
+        requestBatch();
+    }
+
+    /**
+     * Queues an ordered change to the scene graph.
+     *
+     * @param change the change to run on the view thread in the next batch
+     */
+    public void submit(Runnable change) {
+        requestedMutations.incrementAndGet();
+        sceneChanges.add(change);
+        requestBatch();
+    }
+
+    /**
+     * Posts the batch to the view thread unless it is already posted.
+     */
+    private void requestBatch() {
+        if (batchScheduled.compareAndSet(false, true)) {
+            batchRequestedAt = System.nanoTime();
+            backend.post(this::applyBatch);
+        }
+    }
+
+    /**
+     * Applies every queued scene change and dirty component. Runs on the
+     * backend's view thread.
+     */
+    private void applyBatch() {
+        // Cleared first so mutations made while applying schedule a new batch
+        batchScheduled.set(false);
+        long start = System.nanoTime();
+        FrameMonitor monitor = frameMonitor;
+        int size = 0;
+
+        Runnable change;
+        while ((change = sceneChanges.poll()) != null) {
+            change.run();
+            size++;
+        }
+        int numSceneChanges = size;
+        ViewComponent component;
+        while ((component = dirtyComponents.poll()) != null) {
+            backend.apply(component);
+            if (monitor != null) {
+                monitor.recordUpdate(component);
+            }
+            size++;
+        }
+        reorder();
+        if (monitor != null) {
+            monitor.recordBatch(start - batchRequestedAt, numSceneChanges, size - numSceneChanges);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        batches++;
+        appliedMutations += size;
+        lastBatchSize = size;
+        maxBatchSize = Math.max(maxBatchSize, size);
+        totalApplyNanos += elapsed;
+        maxApplyNanos = Math.max(maxApplyNanos, elapsed);
+    }
+
+    /**
+     * Moves the nodes whose rank changed in this batch to their place in rank
+     * order. They are all taken out of their group or pane first, so the
+     * children left are in order, and then each is put back after the last
+     * sibling with a rank no higher than its own, found by binary search. Only
+     * the changed nodes are touched. Runs on the FX thread.
+     */
+    private void reorder() {
+        if (reorderComponents.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (ViewComponent component : reorderComponents) {
+            Node node = component.getObject();
+            ObservableList<Node> children = childrenOf(node.getParent());
+            // Null if the node was already taken out, or is not in a group or pane
+            reorderLists.add(children);
+            if (children != null) {
+                children.remove(node);
+            }
+        }
+        for (int i = 0; i < reorderComponents.size(); i++) {
+            ObservableList<Node> children = reorderLists.get(i);
+            if (children == null) {
+                continue;
+            }
+            ViewComponent component = reorderComponents.get(i);
+            children.add(insertionIndex(children, component.getRenderRank()), component.getObject());
+            movedNodes++;
+        }
+        rankChanges += reorderComponents.size();
+        reorderComponents.clear();
+        reorderLists.clear();
+        long elapsed = System.nanoTime() - start;
+        totalReorderNanos += elapsed;
+        maxReorderNanos = Math.max(maxReorderNanos, elapsed);
+    }
+
+    /**
+     * Finds where a node with the given rank goes in a child list that is in
+     * rank order: after every child with the same or a lower rank.
+     *
+     * @param children the child nodes, in rank order
+     * @param rank     the rank of the node to place
+     * @return the index to insert the node at
+     */
+    private int insertionIndex(ObservableList<Node> children, int rank) {
+        int low = 0;
+        int high = children.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rankOf(children.get(middle)) <= rank) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the modifiable child list of a group or pane.
+     *
+     * @param parent the parent node
+     * @return the children, or null if the parent is neither a group nor a pane
+     */
+    private static ObservableList<Node> childrenOf(Parent parent) {
+        if (parent instanceof Group) {
+            return ((Group) parent).getChildren();
+        }
+        if (parent instanceof Pane) {
+            return ((Pane) parent).getChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the rank a node is ordered by. Nodes that do not belong to a
+     * component are kept behind every component.
+     *
+     * @param node the node
+     * @return the applied order rank of the node's component
+     */
+    private int rankOf(Node node) {
+        ViewComponent component = components.get(node);
+        return component == null ? Integer.MIN_VALUE : component.getRenderRank();
+    }
+
+    /**
+     * Returns the number of mutations applied in the most recent batch.
+     *
+     * @return the size of the last batch
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Returns a summary of batch sizes and apply times.
+     *
+     * @return the statistics as a String
+     */
+    public String getStatistics() {
+        double averageSize = batches == 0 ? 0 : (double) appliedMutations / batches;
+        double averageMicros = batches == 0 ? 0 : totalApplyNanos / 1000.0 / batches;
+        return String.format("Render batches: %d batches, %d mutations requested, %d applied, %.1f average / %d max per batch, %.1f us average / %.1f us max apply time",
+                batches, requestedMutations.get(), appliedMutations, averageSize, maxBatchSize, averageMicros,
+                maxApplyNanos / 1000.0);
+    }
+
+    /**
+     * Returns a summary of how many nodes were put back in rank order, and the
+     * time spent doing it in the batches that moved anything.
+     *
+     * @return the statistics as a String
+     */
+    public String getOrderStatistics() {
+        return String.format("Z-order: %d rank changes, %d nodes moved, %.1f us total / %.1f us max reorder time per batch",
+                rankChanges, movedNodes, totalReorderNanos / 1000.0, maxReorderNanos / 1000.0);
+    }
+}
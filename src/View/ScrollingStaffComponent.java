@@ -0,0 +1,374 @@
+package View;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * The ScrollingStaffComponent draws a grand staff that a chart of flashcards
+ * scrolls across from right to left, one card per beat. Each card reaches the
+ * play line at its beat and is coloured once it has been graded. Treble clef
+ * cards are drawn on the upper staff and bass clef cards on the lower one.
+ *
+ * The canvas is redrawn on every JavaFX pulse by an AnimationTimer, so the
+ * notes move as smoothly as the display allows. The chart is laid out once
+ * when it is set, and drawing a frame reuses it without allocating. Grades are
+ * recorded as pending state like any other component change.
+ *
+ * Scroll positions are worked out from the pulse time, so the chart's start
+ * must be given in System.nanoTime() units.
+ */
+public class ScrollingStaffComponent extends ViewComponent {
+    private static final int DIRTY_CHART = FIRST_HELPER_FLAG;
+    private static final int DIRTY_GRADES = FIRST_HELPER_FLAG << 1;
+
+    /** A card that has not been graded yet. */
+    public static final byte PENDING = 0;
+    /** A card answered correctly. */
+    public static final byte CORRECT = 1;
+    /** A card answered with the wrong notes. */
+    public static final byte WRONG = 2;
+    /** A card that crossed the play line without being answered. */
+    public static final byte MISSED = 3;
+
+    private static final Color[] GRADE_COLORS = { Color.BLACK, Color.FORESTGREEN, Color.CRIMSON, Color.GREY };
+    private static final char[] GRADE_NAMES = { '.', '+', '-', 'x' };
+
+    // Layout in staff image units, scaled so two staves fill the height
+    private static final double PLAY_LINE_X = StaffComponent.CLEF_RIGHT + 300;
+    private static final double PLAY_LINE_WIDTH = 12;
+    private static final double CARD_SPACING = 400;
+    private static final Color PLAY_LINE_COLOR = Color.DODGERBLUE;
+    private static final String TREBLE_STAFF_IMAGE = "/Assets/trebleStaff.png";
+    private static final String BASS_STAFF_IMAGE = "/Assets/bassStaff.png";
+
+    private Canvas thisObject;
+    private AnimationTimer timer;
+    // The clefs are copied from the staff images, looked up once
+    private Image trebleStaff;
+    private Image bassStaff;
+
+    // The chart as set by the session, applied on the FX thread
+    private int[] pendingNoteStarts;
+    private byte[] pendingStaves;
+    private int[] pendingPositions;
+    private int[] pendingOctaves;
+    private boolean[] pendingSharps;
+    private boolean[] pendingShifted;
+    private byte[] grades;
+    private long startTime;
+    private long nanosPerCard;
+    private boolean running;
+
+    // The chart being drawn, only used on the FX thread
+    private int numCards;
+    private int[] noteStarts;
+    private byte[] staves;
+    private int[] positions;
+    private int[] octaves;
+    private boolean[] sharps;
+    private boolean[] shifted;
+    private byte[] drawnGrades;
+    private long drawnStartTime;
+    private long drawnNanosPerCard;
+
+    // Instrumentation
+    private long frames;
+    private long drawNanos;
+    private long maxDrawNanos;
+
+    /**
+     * Constructs a ScrollingStaffComponent with an empty chart.
+     */
+    public ScrollingStaffComponent() {
+        noteStarts = pendingNoteStarts = new int[1];
+        staves = pendingStaves = new byte[0];
+        positions = pendingPositions = new int[0];
+        octaves = pendingOctaves = new int[0];
+        sharps = pendingSharps = new boolean[0];
+        shifted = pendingShifted = new boolean[0];
+        drawnGrades = grades = new byte[0];
+        drawnNanosPerCard = nanosPerCard = 1;
+    }
+
+    /**
+     * Sets the chart to scroll and starts scrolling it. Card i reaches the play
+     * line at startTime + i * nanosPerCard. Every card starts ungraded.
+     *
+     * @param chords       the notes of each card
+     * @param clefs        the clef of each card, 'T' or 'B'
+     * @param startTime    the System.nanoTime() the first card reaches the play line
+     * @param nanosPerCard the time between cards in nanoseconds
+     * @throws IllegalArgumentException if the arrays differ in length, a clef is
+     *                                  unknown or nanosPerCard is not positive
+     */
+    public void setChart(int[][] chords, char[] clefs, long startTime, long nanosPerCard) {
+        if (chords.length != clefs.length) {
+            throw new IllegalArgumentException("Every card needs a clef");
+        }
+        if (nanosPerCard <= 0) {
+            throw new IllegalArgumentException("Time between cards must be positive: " + nanosPerCard);
+        }
+        int numNotes = 0;
+        int maxChordNotes = 0;
+        for (int[] chord : chords) {
+            numNotes += chord.length;
+            maxChordNotes = Math.max(maxChordNotes, chord.length);
+        }
+        int[] sorted = new int[maxChordNotes];
+        int[] newNoteStarts = new int[chords.length + 1];
+        byte[] newStaves = new byte[chords.length];
+        int[] newPositions = new int[numNotes];
+        int[] newOctaves = new int[numNotes];
+        boolean[] newSharps = new boolean[numNotes];
+        boolean[] newShifted = new boolean[numNotes];
+        int note = 0;
+        for (int card = 0; card < chords.length; card++) {
+            if (clefs[card] != 'T' && clefs[card] != 'B') {
+                throw new IllegalArgumentException("Unknown clef: " + clefs[card]);
+            }
+            int bottomStep = clefs[card] == 'T' ? StaffComponent.TREBLE_BOTTOM_STEP : StaffComponent.BASS_BOTTOM_STEP;
+            newStaves[card] = (byte) (clefs[card] == 'T' ? 0 : 1);
+            newNoteStarts[card] = note;
+            StaffComponent.layoutChord(chords[card], chords[card].length, bottomStep, sorted, newPositions, newOctaves,
+                    newSharps, newShifted, note);
+            note += chords[card].length;
+        }
+        newNoteStarts[chords.length] = note;
+
+        synchronized (this) {
+            pendingNoteStarts = newNoteStarts;
+            pendingStaves = newStaves;
+            pendingPositions = newPositions;
+            pendingOctaves = newOctaves;
+            pendingSharps = newSharps;
+            pendingShifted = newShifted;
+            grades = new byte[chords.length];
+            this.startTime = startTime;
+            this.nanosPerCard = nanosPerCard;
+            running = true;
+        }
+        markDirty(DIRTY_CHART);
+    }
+
+    /**
+     * Grades a card of the current chart, changing its colour.
+     *
+     * @param card  the index of the card
+     * @param grade CORRECT, WRONG or MISSED
+     * @throws IllegalArgumentException if there is no such card or grade
+     */
+    public void setGrade(int card, byte grade) {
+        if (grade < PENDING || grade > MISSED) {
+            throw new IllegalArgumentException("Unknown grade: " + grade);
+        }
+        synchronized (this) {
+            if (card < 0 || card >= grades.length) {
+                throw new IllegalArgumentException("No card " + card);
+            }
+            grades[card] = grade;
+        }
+        markDirty(DIRTY_GRADES);
+    }
+
+    /**
+     * Stops scrolling. The staff keeps showing the last frame drawn.
+     */
+    public void stopScrolling() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        markDirty(DIRTY_CHART);
+    }
+
+    /**
+     * Stops scrolling so a pooled component does not keep its timer running.
+     */
+    @Override
+    protected void resetHelper() {
+        stopScrolling();
+    }
+
+    /**
+     * Sets the visibility of the staff. A hidden staff is not redrawn.
+     *
+     * @param isHidden true to hide the component, false to show it
+     */
+    @Override
+    protected void setHiddenHelper(boolean isHidden) {
+        getObject().setVisible(!isHidden);
+    }
+
+    /**
+     * Moves and resizes the canvas.
+     *
+     * @param xyCords an array containing the coordinates [x1, x2, y1, y2]
+     */
+    @Override
+    protected void updateXYHelper(int[] xyCords) {
+        Canvas canvas = getObject();
+        canvas.setLayoutX(xyCords[0]);
+        canvas.setLayoutY(xyCords[2]);
+        canvas.setWidth(Math.max(0, xyCords[1] - xyCords[0]));
+        canvas.setHeight(Math.max(0, xyCords[3] - xyCords[2]));
+    }
+
+    /**
+     * Takes a new chart, and starts or stops the pulse timer. The timer only
+     * runs while the staff is shown and scrolling. The staff images are looked
+     * up with the first chart. Grades need nothing here, since the next frame
+     * draws them.
+     *
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags) {
+        if ((flags & DIRTY_CHART) != 0) {
+            if (trebleStaff == null) {
+                trebleStaff = ImageCache.getShared().get(TREBLE_STAFF_IMAGE);
+                bassStaff = ImageCache.getShared().get(BASS_STAFF_IMAGE);
+            }
+            numCards = pendingStaves.length;
+            noteStarts = pendingNoteStarts;
+            staves = pendingStaves;
+            positions = pendingPositions;
+            octaves = pendingOctaves;
+            sharps = pendingSharps;
+            shifted = pendingShifted;
+            drawnGrades = grades;
+            drawnStartTime = startTime;
+            drawnNanosPerCard = nanosPerCard;
+        }
+        if ((flags & (DIRTY_CHART | DIRTY_HIDDEN)) != 0) {
+            if (running && !getHidden()) {
+                if (timer == null) {
+                    timer = new AnimationTimer() {
+                        @Override
+                        public void handle(long now) {
+                            drawFrame(now);
+                        }
+                    };
+                }
+                timer.start();
+            } else if (timer != null) {
+                timer.stop();
+            }
+        }
+    }
+
+    /**
+     * Describes the chart and its grades.
+     *
+     * @return the number of cards and a character for each card's grade
+     */
+    @Override
+    protected String describeHelper() {
+        StringBuilder description = new StringBuilder(" scrolling=").append(running).append(" grades=");
+        for (byte grade : grades) {
+            description.append(GRADE_NAMES[grade]);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Returns the Canvas of this component.
+     *
+     * @return the Canvas object
+     */
+    @Override
+    public Canvas getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            thisObject = new Canvas();
+        }
+        return thisObject;
+    }
+
+    /**
+     * Draws the staves, the play line and every card that is on screen. Runs
+     * on the FX thread on every pulse.
+     *
+     * @param now the time of the pulse, in System.nanoTime() units
+     */
+    private void drawFrame(long now) {
+        long drawStart = System.nanoTime();
+        Canvas canvas = getObject();
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        graphics.setFill(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        if (height <= 0) {
+            return;
+        }
+
+        double scale = height / (2 * StaffComponent.BASE_HEIGHT);
+        double baseWidth = width / scale;
+        // Set directly rather than saved and restored, which copies the state
+        graphics.setTransform(scale, 0, 0, scale, 0, 0);
+        graphics.setFill(Color.BLACK);
+        drawStaff(graphics, 0, trebleStaff, baseWidth);
+        drawStaff(graphics, 1, bassStaff, baseWidth);
+        graphics.setFill(PLAY_LINE_COLOR);
+        graphics.fillRect(PLAY_LINE_X - PLAY_LINE_WIDTH / 2, 0, PLAY_LINE_WIDTH, 2 * StaffComponent.BASE_HEIGHT);
+
+        // Cards from just off the left of the staff to just off the right edge
+        double beat = (double) (now - drawnStartTime) / drawnNanosPerCard;
+        int first = Math.max(0, (int) Math.floor(beat - (PLAY_LINE_X - StaffComponent.CLEF_RIGHT) / CARD_SPACING));
+        int last = Math.min(numCards - 1, (int) Math.ceil(beat + (baseWidth - PLAY_LINE_X) / CARD_SPACING));
+        for (int card = first; card <= last; card++) {
+            double x = PLAY_LINE_X + (card - beat) * CARD_SPACING;
+            if (x < StaffComponent.CLEF_RIGHT) {
+                continue;
+            }
+            graphics.setFill(GRADE_COLORS[drawnGrades[card]]);
+            double staffY = staves[card] * StaffComponent.BASE_HEIGHT;
+            graphics.translate(0, staffY);
+            for (int note = noteStarts[card]; note < noteStarts[card + 1]; note++) {
+                StaffComponent.drawNote(graphics, positions[note], shifted[note] ? x + StaffComponent.NOTE_WIDTH : x,
+                        sharps[note], octaves[note]);
+            }
+            graphics.translate(0, -staffY);
+        }
+        graphics.setTransform(1, 0, 0, 1, 0, 0);
+
+        long duration = System.nanoTime() - drawStart;
+        frames++;
+        drawNanos += duration;
+        maxDrawNanos = Math.max(maxDrawNanos, duration);
+    }
+
+    /**
+     * Draws one staff of the grand staff with its clef.
+     *
+     * @param graphics  the canvas's graphics context
+     * @param staff     0 for the upper staff, 1 for the lower one
+     * @param image     the staff image the clef is copied from
+     * @param baseWidth the width of the canvas in staff image units
+     */
+    private static void drawStaff(GraphicsContext graphics, int staff, Image image, double baseWidth) {
+        double staffY = staff * StaffComponent.BASE_HEIGHT;
+        graphics.translate(0, staffY);
+        StaffComponent.drawStaffLines(graphics, StaffComponent.STAFF_LEFT, baseWidth - StaffComponent.STAFF_LEFT);
+        double clefWidth = StaffComponent.CLEF_RIGHT - StaffComponent.CLEF_LEFT;
+        graphics.drawImage(image, StaffComponent.CLEF_LEFT, 0, clefWidth, StaffComponent.BASE_HEIGHT,
+                StaffComponent.CLEF_LEFT, 0, clefWidth, StaffComponent.BASE_HEIGHT);
+        graphics.translate(0, -staffY);
+    }
+
+    /**
+     * Returns how many frames were drawn and how long drawing them took.
+     *
+     * @return the statistics as a String
+     */
+    public String getStatistics() {
+        double average = frames == 0 ? 0 : drawNanos / 1e3 / frames;
+        return String.format("Scrolling staff: %d frames drawn, %.1f us average / %.1f us max draw time",
+                frames, average, maxDrawNanos / 1e3);
+    }
+}
@@ -0,0 +1,576 @@
+package View;
+
+import java.util.Arrays;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * The StaffComponent draws a staff with its clef, ledger lines, noteheads and
+ * sharps onto a single Canvas. Notes are placed by their diatonic step, so any
+ * MIDI note can be drawn. Notes more than three ledger lines away from the
+ * staff are drawn an octave or more closer with an 8va or 8vb mark.
+ *
+ * Layout is worked out in the units of the staff images (1020 by 900) and
+ * scaled to the component's size. Flashcard notes are drawn at the middle of
+ * the staff and overlay notes, such as the user's input, to their right.
+ *
+ * Notes the user is holding down are drawn in the overlay position in blue as
+ * they are pressed and released. Presses only mark the staff dirty, so a fast
+ * run of notes is drawn once per render batch, and the time from each first
+ * press to the redraw that shows it is kept in a histogram.
+ */
+public class StaffComponent extends ViewComponent {
+    private static final int DIRTY_STAFF = FIRST_HELPER_FLAG;
+    private static final int DIRTY_HELD = FIRST_HELPER_FLAG << 1;
+
+    // Most held notes drawn, one per finger
+    private static final int MAX_HELD_NOTES = 10;
+    private static final Color HELD_COLOR = Color.ROYALBLUE;
+
+    // Size of the staff images the layout is measured in, shared with ScrollingStaffComponent
+    static final double BASE_WIDTH = 1020;
+    static final double BASE_HEIGHT = 900;
+
+    // Staff lines
+    static final double STAFF_LEFT = 145;
+    private static final double STAFF_RIGHT = 875;
+    private static final double BOTTOM_LINE_Y = 593;
+    private static final double STEP_HEIGHT = 36;
+    private static final double LINE_WIDTH = 10;
+    static final int TOP_LINE_POSITION = 8;
+
+    // The clef is copied from the left of the staff image
+    static final double CLEF_LEFT = 140;
+    static final double CLEF_RIGHT = 360;
+
+    // Notes
+    private static final double NOTE_X = 510;
+    private static final double OVERLAY_OFFSET = 200;
+    static final double NOTE_WIDTH = 80;
+    private static final double NOTE_HEIGHT = 56;
+    private static final double LEDGER_WIDTH = 130;
+    private static final double SHARP_OFFSET = 75;
+    private static final double SHARP_WIDTH = 36;
+    private static final double SHARP_HEIGHT = 100;
+
+    // Notes further than three ledger lines from the staff are moved by octaves
+    private static final int LOWEST_POSITION = -6;
+    private static final int HIGHEST_POSITION = 14;
+
+    // Diatonic step of each pitch class within its octave; sharps share the step below
+    private static final int[] STEP_IN_OCTAVE = { 0, 0, 1, 1, 2, 3, 3, 4, 4, 5, 5, 6 };
+    private static final boolean[] IS_SHARP = { false, true, false, true, false, false, true, false, true, false,
+            true, false };
+
+    // Diatonic steps of the bottom line: E4 in the treble clef, G2 in the bass clef
+    static final int TREBLE_BOTTOM_STEP = diatonicStep(64);
+    static final int BASS_BOTTOM_STEP = diatonicStep(43);
+
+    private static final int[] NO_NOTES = new int[0];
+
+    // Octave marks by the number of octaves a note was moved, so drawing them does not allocate
+    private static final String[] MARKS_ABOVE = new String[11];
+    private static final String[] MARKS_BELOW = new String[11];
+
+    static {
+        for (int octaves = 1; octaves < MARKS_ABOVE.length; octaves++) {
+            MARKS_ABOVE[octaves] = (7 * octaves + 1) + "va";
+            MARKS_BELOW[octaves] = (7 * octaves + 1) + "vb";
+        }
+    }
+
+    // Scratch polygon for sharp bars; drawing only happens on the FX thread
+    private static final double[] BAR_XS = new double[4];
+    private static final double[] BAR_YS = new double[4];
+    private static Font markFont;
+
+    private Canvas thisObject;
+    private char clef;
+    private int[] notes;
+    private int[] overlayNotes;
+    private final int[] heldNotes;
+    private int numHeldNotes;
+    private boolean needsRedraw;
+
+    // Layout of the chord being drawn, reused by every redraw on the FX thread
+    private int[] sortedNotes;
+    private int[] layoutPositions;
+    private int[] layoutOctaves;
+    private boolean[] layoutSharps;
+    private boolean[] layoutShifted;
+
+    // Instrumentation
+    private long redraws;
+    // System.nanoTime() of the earliest press not yet drawn, or 0
+    private long heldSince;
+    private final Histogram heldLatency;
+
+    /**
+     * Constructs an empty treble StaffComponent.
+     */
+    public StaffComponent() {
+        clef = 'T';
+        notes = NO_NOTES;
+        overlayNotes = NO_NOTES;
+        heldNotes = new int[MAX_HELD_NOTES];
+        allocateLayout(MAX_HELD_NOTES);
+        heldLatency = new Histogram(1000000L, 2000000L, 4000000L, 8000000L, 16667000L, 33333000L, 50000000L,
+                100000000L);
+    }
+
+    /**
+     * Sets the clef and the notes of the flashcard, clearing any overlay notes.
+     *
+     * @param clef  'T' for the treble clef or 'B' for the bass clef
+     * @param notes the MIDI notes to draw
+     * @throws IllegalArgumentException if the clef is not 'T' or 'B'
+     */
+    public void setNotes(char clef, int[] notes) {
+        if (clef != 'T' && clef != 'B') {
+            throw new IllegalArgumentException("Unknown clef: " + clef);
+        }
+        synchronized (this) {
+            this.clef = clef;
+            this.notes = notes.clone();
+            overlayNotes = NO_NOTES;
+        }
+        markDirty(DIRTY_STAFF);
+    }
+
+    /**
+     * Sets the notes drawn to the right of the flashcard's notes.
+     *
+     * @param overlayNotes the MIDI notes to draw, or an empty array for none
+     */
+    public void setOverlayNotes(int[] overlayNotes) {
+        synchronized (this) {
+            this.overlayNotes = overlayNotes.clone();
+        }
+        markDirty(DIRTY_STAFF);
+    }
+
+    /**
+     * Removes the overlay notes.
+     */
+    public void clearOverlayNotes() {
+        setOverlayNotes(NO_NOTES);
+    }
+
+    /**
+     * Draws a note the user has pressed. Pressing a note that is already held,
+     * or more than MAX_HELD_NOTES notes, does nothing.
+     *
+     * @param note      the MIDI note pressed
+     * @param pressedAt the System.nanoTime() the press arrived at, for
+     *                  measuring how long it takes to be drawn
+     */
+    public void pressNote(int note, long pressedAt) {
+        synchronized (this) {
+            if (numHeldNotes == MAX_HELD_NOTES || indexOfHeld(note) >= 0) {
+                return;
+            }
+            heldNotes[numHeldNotes++] = note;
+            if (heldSince == 0) {
+                heldSince = pressedAt;
+            }
+        }
+        markDirty(DIRTY_HELD);
+    }
+
+    /**
+     * Removes a note the user has released. Releasing a note that is not held
+     * does nothing.
+     *
+     * @param note the MIDI note released
+     */
+    public void releaseNote(int note) {
+        synchronized (this) {
+            int index = indexOfHeld(note);
+            if (index < 0) {
+                return;
+            }
+            heldNotes[index] = heldNotes[--numHeldNotes];
+        }
+        markDirty(DIRTY_HELD);
+    }
+
+    /**
+     * Removes every held note.
+     */
+    public void clearHeldNotes() {
+        synchronized (this) {
+            if (numHeldNotes == 0) {
+                return;
+            }
+            numHeldNotes = 0;
+        }
+        markDirty(DIRTY_HELD);
+    }
+
+    /**
+     * Finds a held note.
+     *
+     * @param note the MIDI note
+     * @return the note's index in heldNotes, or -1 if it is not held
+     */
+    private int indexOfHeld(int note) {
+        for (int i = 0; i < numHeldNotes; i++) {
+            if (heldNotes[i] == note) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every note and returns to the treble clef.
+     */
+    @Override
+    protected void resetHelper() {
+        clearHeldNotes();
+        setNotes('T', NO_NOTES);
+    }
+
+    /**
+     * Describes the clef and the notes drawn.
+     *
+     * @return the clef, notes and overlay notes
+     */
+    @Override
+    protected String describeHelper() {
+        return " clef=" + clef + " notes=" + Arrays.toString(notes) + " overlay=" + Arrays.toString(overlayNotes)
+                + " held=" + Arrays.toString(Arrays.copyOf(heldNotes, numHeldNotes));
+    }
+
+    /**
+     * Returns the number of times the staff has been drawn.
+     *
+     * @return the number of redraws
+     */
+    public synchronized long getRedraws() {
+        return redraws;
+    }
+
+    /**
+     * Returns the time from a note being pressed to the staff being redrawn
+     * with it. Presses that arrive together are measured from the first. The
+     * time until the frame is shown is not included.
+     *
+     * @return the histogram of key to draw latencies
+     */
+    public Histogram getHeldNoteLatency() {
+        return heldLatency;
+    }
+
+    /**
+     * Sets the visibility of the staff.
+     *
+     * @param isHidden true to hide the component, false to show it
+     */
+    @Override
+    protected void setHiddenHelper(boolean isHidden) {
+        getObject().setVisible(!isHidden);
+    }
+
+    /**
+     * Moves and resizes the canvas.
+     *
+     * @param xyCords an array containing the coordinates [x1, x2, y1, y2]
+     */
+    @Override
+    protected void updateXYHelper(int[] xyCords) {
+        Canvas canvas = getObject();
+        canvas.setLayoutX(xyCords[0]);
+        canvas.setLayoutY(xyCords[2]);
+        canvas.setWidth(Math.max(0, xyCords[1] - xyCords[0]));
+        canvas.setHeight(Math.max(0, xyCords[3] - xyCords[2]));
+    }
+
+    /**
+     * Redraws the staff if its notes or size changed. A hidden staff is drawn
+     * when it is next shown. Presses made while it is hidden are not measured.
+     *
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags) {
+        if ((flags & (DIRTY_STAFF | DIRTY_HELD | DIRTY_XY)) != 0) {
+            needsRedraw = true;
+        }
+        boolean drawn = false;
+        if (needsRedraw && !getHidden()) {
+            draw();
+            needsRedraw = false;
+            drawn = true;
+        }
+        if (heldSince != 0) {
+            if (drawn) {
+                heldLatency.add(System.nanoTime() - heldSince);
+            }
+            heldSince = 0;
+        }
+    }
+
+    /**
+     * Returns the Canvas of this component.
+     *
+     * @return the Canvas object
+     */
+    @Override
+    public Canvas getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            thisObject = new Canvas();
+        }
+        return thisObject;
+    }
+
+    /**
+     * Draws the whole staff. Runs on the FX thread with the component's lock held.
+     */
+    private void draw() {
+        Canvas canvas = getObject();
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        graphics.setFill(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+
+        graphics.save();
+        graphics.scale(width / BASE_WIDTH, height / BASE_HEIGHT);
+        graphics.setFill(Color.BLACK);
+        drawStaffLines(graphics, STAFF_LEFT, STAFF_RIGHT);
+        Image staffImage = ImageCache.getShared().get(clef == 'T' ? "/Assets/trebleStaff.png" : "/Assets/bassStaff.png");
+        graphics.drawImage(staffImage, CLEF_LEFT, 0, CLEF_RIGHT - CLEF_LEFT, BASE_HEIGHT,
+                CLEF_LEFT, 0, CLEF_RIGHT - CLEF_LEFT, BASE_HEIGHT);
+
+        int bottomStep = clef == 'T' ? TREBLE_BOTTOM_STEP : BASS_BOTTOM_STEP;
+        drawChord(graphics, notes, notes.length, bottomStep, NOTE_X);
+        drawChord(graphics, overlayNotes, overlayNotes.length, bottomStep, NOTE_X + OVERLAY_OFFSET);
+        if (numHeldNotes > 0) {
+            graphics.setFill(HELD_COLOR);
+            drawChord(graphics, heldNotes, numHeldNotes, bottomStep, NOTE_X + OVERLAY_OFFSET);
+        }
+        graphics.restore();
+        redraws++;
+    }
+
+    /**
+     * Draws the notes of one chord. The chord is laid out in the staff's
+     * layout arrays, which only grow if a chord is larger than any before it.
+     *
+     * @param graphics   the canvas's graphics context
+     * @param chord      the MIDI notes
+     * @param numNotes   how many notes of the array to draw
+     * @param bottomStep the diatonic step of the staff's bottom line
+     * @param x          the centre of the chord's noteheads
+     */
+    private void drawChord(GraphicsContext graphics, int[] chord, int numNotes, int bottomStep, double x) {
+        if (numNotes > sortedNotes.length) {
+            allocateLayout(numNotes);
+        }
+        layoutChord(chord, numNotes, bottomStep, sortedNotes, layoutPositions, layoutOctaves, layoutSharps,
+                layoutShifted, 0);
+        for (int i = 0; i < numNotes; i++) {
+            drawNote(graphics, layoutPositions[i], layoutShifted[i] ? x + NOTE_WIDTH : x, layoutSharps[i],
+                    layoutOctaves[i]);
+        }
+    }
+
+    /**
+     * Allocates the layout arrays for chords of up to the given size.
+     *
+     * @param capacity the most notes a chord can have
+     */
+    private void allocateLayout(int capacity) {
+        sortedNotes = new int[capacity];
+        layoutPositions = new int[capacity];
+        layoutOctaves = new int[capacity];
+        layoutSharps = new boolean[capacity];
+        layoutShifted = new boolean[capacity];
+    }
+
+    /**
+     * Works out where the notes of a chord are drawn, from the lowest note up.
+     * Notes are moved by octaves to stay within three ledger lines of the
+     * staff, and a note a step above the note below it is moved to the right
+     * so the two noteheads do not overlap.
+     *
+     * @param chord      the MIDI notes
+     * @param numNotes   how many notes of the array to lay out
+     * @param bottomStep the diatonic step of the staff's bottom line
+     * @param sorted     scratch space for the notes in order, at least
+     *                   numNotes long
+     * @param positions  receives each note's staff position, 0 being the bottom line
+     * @param octaves    receives how many octaves each note was moved, positive
+     *                   if it sounds higher than drawn
+     * @param sharps     receives whether each note has a sharp
+     * @param shifted    receives whether each note is moved right
+     * @param offset     the index in the arrays to store the lowest note at
+     */
+    static void layoutChord(int[] chord, int numNotes, int bottomStep, int[] sorted, int[] positions, int[] octaves,
+            boolean[] sharps, boolean[] shifted, int offset) {
+        System.arraycopy(chord, 0, sorted, 0, numNotes);
+        Arrays.sort(sorted, 0, numNotes);
+        int previousPosition = Integer.MIN_VALUE;
+        boolean previousShifted = false;
+        for (int i = 0; i < numNotes; i++) {
+            int note = sorted[i];
+            int position = diatonicStep(note) - bottomStep;
+            int moved = 0;
+            while (position > HIGHEST_POSITION) {
+                position -= 7;
+                moved++;
+            }
+            while (position < LOWEST_POSITION) {
+                position += 7;
+                moved--;
+            }
+            boolean shift = position - previousPosition == 1 && !previousShifted;
+            positions[offset + i] = position;
+            octaves[offset + i] = moved;
+            sharps[offset + i] = IS_SHARP[Math.floorMod(note, 12)];
+            shifted[offset + i] = shift;
+            previousPosition = position;
+            previousShifted = shift;
+        }
+    }
+
+    /**
+     * Draws the five lines of a staff.
+     *
+     * @param graphics the canvas's graphics context
+     * @param left     the left end of the lines
+     * @param right    the right end of the lines
+     */
+    static void drawStaffLines(GraphicsContext graphics, double left, double right) {
+        for (int line = 0; line <= TOP_LINE_POSITION; line += 2) {
+            fillLine(graphics, left, right, positionY(line));
+        }
+    }
+
+    /**
+     * Draws one note with its ledger lines, sharp and octave mark, in the
+     * current fill. Does not allocate, so it can be used every frame.
+     *
+     * @param graphics the canvas's graphics context
+     * @param position the note's staff position, 0 being the bottom line
+     * @param x        the centre of the notehead
+     * @param sharp    true to draw a sharp before the note
+     * @param octaves  how many octaves the note was moved to fit, positive if
+     *                 it sounds higher than drawn
+     */
+    static void drawNote(GraphicsContext graphics, int position, double x, boolean sharp, int octaves) {
+        double y = positionY(position);
+        for (int line = -2; line >= position; line -= 2) {
+            fillLine(graphics, x - LEDGER_WIDTH / 2, x + LEDGER_WIDTH / 2, positionY(line));
+        }
+        for (int line = TOP_LINE_POSITION + 2; line <= position; line += 2) {
+            fillLine(graphics, x - LEDGER_WIDTH / 2, x + LEDGER_WIDTH / 2, positionY(line));
+        }
+
+        // A whole note: a black oval with a tilted white hollow
+        graphics.fillOval(x - NOTE_WIDTH / 2, y - NOTE_HEIGHT / 2, NOTE_WIDTH, NOTE_HEIGHT);
+        // Undone by hand rather than with save and restore, which copy the
+        // whole graphics state for every note
+        Paint fill = graphics.getFill();
+        graphics.translate(x, y);
+        graphics.rotate(-35);
+        graphics.setFill(Color.WHITE);
+        graphics.fillOval(-NOTE_HEIGHT * 0.28, -NOTE_HEIGHT * 0.42, NOTE_HEIGHT * 0.56, NOTE_HEIGHT * 0.84);
+        graphics.rotate(35);
+        graphics.translate(-x, -y);
+        graphics.setFill(fill);
+
+        if (sharp) {
+            drawSharp(graphics, x - SHARP_OFFSET, y);
+        }
+        if (octaves != 0) {
+            if (markFont == null) {
+                markFont = Font.font(36);
+            }
+            graphics.setFont(markFont);
+            graphics.setTextAlign(TextAlignment.CENTER);
+            graphics.setTextBaseline(octaves > 0 ? VPos.BOTTOM : VPos.TOP);
+            String mark = octaves > 0 ? MARKS_ABOVE[octaves] : MARKS_BELOW[-octaves];
+            double markY = octaves > 0 ? y - NOTE_HEIGHT : y + NOTE_HEIGHT;
+            graphics.fillText(mark, x, markY);
+        }
+    }
+
+    /**
+     * Draws a sharp sign centred on a point.
+     *
+     * @param graphics the canvas's graphics context
+     * @param x        the centre of the sharp
+     * @param y        the centre of the sharp
+     */
+    private static void drawSharp(GraphicsContext graphics, double x, double y) {
+        double thin = LINE_WIDTH * 0.5;
+        graphics.fillRect(x - SHARP_WIDTH / 4 - thin / 2, y - SHARP_HEIGHT / 2, thin, SHARP_HEIGHT);
+        graphics.fillRect(x + SHARP_WIDTH / 4 - thin / 2, y - SHARP_HEIGHT / 2 - 6, thin, SHARP_HEIGHT);
+        drawSharpBar(graphics, x, y - STEP_HEIGHT * 0.45);
+        drawSharpBar(graphics, x, y + STEP_HEIGHT * 0.45);
+    }
+
+    /**
+     * Draws one of the thick bars of a sharp, rising to the right.
+     *
+     * @param graphics the canvas's graphics context
+     * @param x        the centre of the sharp
+     * @param barY     the top of the bar at the sharp's centre
+     */
+    private static void drawSharpBar(GraphicsContext graphics, double x, double barY) {
+        double rise = 8;
+        BAR_XS[0] = x - SHARP_WIDTH / 2;
+        BAR_XS[1] = x + SHARP_WIDTH / 2;
+        BAR_XS[2] = x + SHARP_WIDTH / 2;
+        BAR_XS[3] = x - SHARP_WIDTH / 2;
+        BAR_YS[0] = barY + rise / 2;
+        BAR_YS[1] = barY - rise / 2;
+        BAR_YS[2] = barY - rise / 2 + LINE_WIDTH;
+        BAR_YS[3] = barY + rise / 2 + LINE_WIDTH;
+        graphics.fillPolygon(BAR_XS, BAR_YS, 4);
+    }
+
+    /**
+     * Draws a horizontal staff or ledger line.
+     *
+     * @param graphics the canvas's graphics context
+     * @param left     the left end of the line
+     * @param right    the right end of the line
+     * @param y        the centre of the line
+     */
+    private static void fillLine(GraphicsContext graphics, double left, double right, double y) {
+        graphics.fillRect(left, y - LINE_WIDTH / 2, right - left, LINE_WIDTH);
+    }
+
+    /**
+     * Returns the vertical centre of a staff position.
+     *
+     * @param position the staff position, 0 being the bottom line and each step
+     *                 a line or space higher
+     * @return the y coordinate in staff image units
+     */
+    private static double positionY(int position) {
+        return BOTTOM_LINE_Y - position * STEP_HEIGHT;
+    }
+
+    /**
+     * Returns the diatonic step of a MIDI note, counting letter names from C-1.
+     * Sharps share the step of the natural below them.
+     *
+     * @param note the MIDI note
+     * @return the number of letter names between C-1 and the note
+     */
+    static int diatonicStep(int note) {
+        return Math.floorDiv(note, 12) * 7 + STEP_IN_OCTAVE[Math.floorMod(note, 12)];
+    }
+}
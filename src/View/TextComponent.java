@@ -1,80 +1,181 @@
 package View;
 
 import javafx.scene.text.Text;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextFlow;
 
 /**
  * The TextComponent class represents a text component in the view.
- * It uses TextFlow to enable text formatting.
+ * It uses TextFlow to enable text formatting. The TextFlow holds one Text node
+ * that is kept for the life of the component, and text and font changes are
+ * recorded as pending state and applied to it in place by the render batch.
  */
 public class TextComponent extends ViewComponent {
-    // Uses TextFlow instead of Text to enable formatting.
-    // Unsure about this though because it requires much more
-    // object recreation whenever changing text content or font.
+    private static final int DIRTY_TEXT = FIRST_HELPER_FLAG;
+    private static final int DIRTY_FONT = FIRST_HELPER_FLAG << 1;
+
+    // Strings of the numbers counters and timers show, so they update without allocating
+    private static final String[] NUMBERS = new String[1000];
+
+    static {
+        for (int i = 0; i < NUMBERS.length; i++) {
+            NUMBERS[i] = Integer.toString(i);
+        }
+    }
+
     private TextFlow thisObject;
+    private Text textNode;
     private Font font;
+    private double fontSize;
     private String text;
 
     /**
      * Constructs a new TextComponent.
      */
     public TextComponent() {
-        thisObject = new TextFlow();
+        text = "";
     }
 
     /**
      * Sets the visibility of the text component.
-     * 
+     *
      * @param isHidden true to hide the component, false to show it
      */
     @Override
     protected void setHiddenHelper(boolean isHidden) {
-        thisObject.setVisible(!isHidden);
+        getObject().setVisible(!isHidden);
     }
 
     /**
-     * Updates the position and size of the text component.
-     * 
+     * Updates the position and size of the text component. A size that is not
+     * positive leaves the TextFlow at the size of its text.
+     *
      * @param xyCords an array containing the coordinates and dimensions
      */
     @Override
     protected void updateXYHelper(int[] xyCords) {
-        thisObject.setLayoutX(xyCords[0]);
-        thisObject.setLayoutY(xyCords[2]);
-        thisObject.setPrefWidth(xyCords[1] - xyCords[0]);
-        thisObject.setPrefHeight(xyCords[3] - xyCords[2]);
+        TextFlow flow = getObject();
+        flow.setLayoutX(xyCords[0]);
+        flow.setLayoutY(xyCords[2]);
+        if (xyCords[1] > xyCords[0]) {
+            flow.setPrefWidth(xyCords[1] - xyCords[0]);
+        }
+        if (xyCords[3] > xyCords[2]) {
+            flow.setPrefHeight(xyCords[3] - xyCords[2]);
+        }
     }
 
     /**
-     * Sets the text content of the text component.
-     * 
+     * Sets the text content of the text component. Setting the text it already
+     * has does nothing.
+     *
      * @param text the new text content
      */
     public void setText(String text) {
-        this.text = text;
-        Text newText = new Text(text);
-        TextFlow newObject = new TextFlow(newText);
-        thisObject = newObject;
+        if (text == null) {
+            text = "";
+        }
+        synchronized (this) {
+            if (text.equals(this.text)) {
+                return;
+            }
+            this.text = text;
+        }
+        markDirty(DIRTY_TEXT);
+    }
+
+    /**
+     * Sets the text content to a number. Numbers from 0 to 999 use cached
+     * strings, so counters and timers can update every frame without
+     * allocating.
+     *
+     * @param number the number to show
+     */
+    public void setNumber(int number) {
+        if (number >= 0 && number < NUMBERS.length) {
+            setText(NUMBERS[number]);
+        } else {
+            setText(Integer.toString(number));
+        }
     }
 
     /**
-     * Sets the font of the text component.
-     * 
+     * Sets the font of the text component. Setting the font it already has
+     * does nothing.
+     *
      * @param font the new font
      */
     public void setFont(Font font) {
-        this.font = font;
-        Text newText = new Text(text);
-        newText.setFont(font);
-        TextFlow newObject = new TextFlow(newText);
-        thisObject = newObject;
+        synchronized (this) {
+            if (font == this.font) {
+                return;
+            }
+            this.font = font;
+            fontSize = 0;
+        }
+        markDirty(DIRTY_FONT);
+    }
+
+    /**
+     * Sets the size of the default font. The font is only created when the
+     * change is applied, so this can be called without a display.
+     *
+     * @param fontSize the font size in points
+     */
+    public void setFontSize(double fontSize) {
+        synchronized (this) {
+            if (font == null && fontSize == this.fontSize) {
+                return;
+            }
+            font = null;
+            this.fontSize = fontSize;
+        }
+        markDirty(DIRTY_FONT);
+    }
+
+    /**
+     * Applies the pending text and font to the retained Text node.
+     *
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    @Override
+    protected void applyPendingHelper(int flags) {
+        // Creates the Text node if this is the first change applied
+        getObject();
+        if ((flags & DIRTY_TEXT) != 0) {
+            textNode.setText(text);
+        }
+        if ((flags & DIRTY_FONT) != 0) {
+            if (font != null) {
+                textNode.setFont(font);
+            } else if (fontSize > 0) {
+                font = Font.font(fontSize);
+                textNode.setFont(font);
+            }
+        }
+    }
+
+    /**
+     * Clears the text so a pooled component does not show stale content.
+     */
+    @Override
+    protected void resetHelper() {
+        setText("");
+    }
+
+    /**
+     * Describes the text shown.
+     *
+     * @return the text
+     */
+    @Override
+    protected String describeHelper() {
+        return " text=" + text;
     }
 
     /**
      * Gets the text content of the text component.
-     * 
+     *
      * @return the text content
      */
     public String getText() {
@@ -83,7 +184,7 @@ public class TextComponent extends ViewComponent {
 
     /**
      * Gets the font of the text component.
-     * 
+     *
      * @return the font
      */
     public Font getFont() {
@@ -92,11 +193,16 @@ public class TextComponent extends ViewComponent {
 
     /**
      * Gets the TextFlow object representing the text component.
-     * 
+     *
      * @return the TextFlow object
      */
     @Override
     public TextFlow getObject() {
+        // Created on first use, so the component can be used without a display
+        if (thisObject == null) {
+            textNode = new Text();
+            thisObject = new TextFlow(textNode);
+        }
         return thisObject;
     }
 }
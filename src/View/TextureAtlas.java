@@ -0,0 +1,151 @@
+package View;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * The TextureAtlas packs the small glyphs that change from card to card (the
+ * check and cross marks and the hands) into one image. An ImageComponent
+ * showing a glyph uses the atlas image with a viewport on the glyph's region,
+ * so changing glyphs only moves the viewport and never swaps the texture.
+ */
+public class TextureAtlas {
+    private static final String[] GLYPHS = {
+            "/Assets/check.png",
+            "/Assets/cross.png",
+            "/Assets/leftHandBlank.png",
+            "/Assets/leftHandFilled.png",
+            "/Assets/rightHandBlank.png",
+            "/Assets/rightHandFilled.png"
+    };
+
+    private static final int WIDTH = 2048;
+    // Transparent gap between glyphs so smoothing does not bleed neighbours in
+    private static final int PADDING = 2;
+
+    private static TextureAtlas shared;
+
+    private final HashMap<String, Rectangle2D> regions;
+    private final WritableImage image;
+
+    // Instrumentation
+    private static final AtomicLong imageSwitches = new AtomicLong();
+    private static final AtomicLong viewportSwitches = new AtomicLong();
+
+    /**
+     * Packs the given images into a new atlas. Images are placed on shelves,
+     * tallest first, left to right.
+     *
+     * @param cache the cache to read the source images from
+     * @param paths the asset paths of the images to pack
+     * @throws IllegalArgumentException if an image is wider than the atlas
+     */
+    public TextureAtlas(ImageCache cache, String[] paths) {
+        regions = new HashMap<>();
+        List<String> sorted = new ArrayList<>();
+        HashMap<String, Image> sources = new HashMap<>();
+        for (String path : paths) {
+            Image source = cache.get(path);
+            if (source.getWidth() > WIDTH) {
+                throw new IllegalArgumentException("Image is wider than the texture atlas: " + path);
+            }
+            sources.put(path, source);
+            sorted.add(path);
+        }
+        sorted.sort((a, b) -> Double.compare(sources.get(b).getHeight(), sources.get(a).getHeight()));
+
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        for (String path : sorted) {
+            Image source = sources.get(path);
+            int width = (int) source.getWidth();
+            int height = (int) source.getHeight();
+            if (x + width > WIDTH) {
+                x = 0;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            regions.put(path, new Rectangle2D(x, y, width, height));
+            x += width + PADDING;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+
+        image = new WritableImage(WIDTH, Math.max(1, y + shelfHeight));
+        for (String path : sorted) {
+            Rectangle2D region = regions.get(path);
+            image.getPixelWriter().setPixels((int) region.getMinX(), (int) region.getMinY(),
+                    (int) region.getWidth(), (int) region.getHeight(), sources.get(path).getPixelReader(), 0, 0);
+            // The atlas holds the only copy the glyphs are drawn from
+            cache.remove(path);
+        }
+    }
+
+    /**
+     * Returns the atlas of the app's glyphs, packing it from the shared image
+     * cache on first use.
+     *
+     * @return the shared TextureAtlas
+     */
+    public static synchronized TextureAtlas getShared() {
+        if (shared == null) {
+            long start = System.nanoTime();
+            shared = new TextureAtlas(ImageCache.getShared(), GLYPHS);
+            if (Boolean.getBoolean("pitchperfect.stats")) {
+                System.out.println(String.format("Packed %d glyphs into a %dx%d texture atlas in %d ms",
+                        GLYPHS.length, WIDTH, (int) shared.image.getHeight(), (System.nanoTime() - start) / 1000000));
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the packed atlas image.
+     *
+     * @return the atlas image
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the region of the atlas holding an image.
+     *
+     * @param path the asset path of the image
+     * @return the region, or null if the image is not in the atlas
+     */
+    public Rectangle2D getRegion(String path) {
+        return regions.get(path);
+    }
+
+    /**
+     * Counts an ImageView changing to a different image.
+     */
+    static void countImageSwitch() {
+        imageSwitches.incrementAndGet();
+    }
+
+    /**
+     * Counts an ImageView changing glyphs by moving its viewport within the
+     * atlas.
+     */
+    static void countViewportSwitch() {
+        viewportSwitches.incrementAndGet();
+    }
+
+    /**
+     * Returns a summary of how image changes were applied.
+     *
+     * @return the statistics as a String
+     */
+    public static String getStatistics() {
+        return String.format("Texture atlas: %d image switches, %d viewport-only switches",
+                imageSwitches.get(), viewportSwitches.get());
+    }
+}
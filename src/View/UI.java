@@ -1,55 +1,84 @@
 package View;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 
-import javax.sound.midi.MidiUnavailableException;
-
-import javafx.application.Platform;
-import javafx.scene.Scene;
-import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 
 /**
  * The UI class is responsible for managing the user interface components and their interactions.
  */
 public class UI {
-    private HashMap<Integer, ViewComponent> viewComponents;
+    private static final int INITIAL_CAPACITY = 64;
+    // Lookups timed in one go when the registry statistics are reported
+    private static final int TIMED_LOOKUPS = 1000000;
+    // JavaFX's pulse rate unless javafx.animation.framerate is set
+    private static final int DEFAULT_FRAME_RATE = 60;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    // Registry indexed by component ID, with the type each component was created as
+    private ViewComponent[] viewComponents;
+    private String[] componentTypes;
     private int numComponents;
-    private Pane pane;
-    private AudioComponent audioComponent;
-    private static final int screenWidth = 1350;
-    private static final int screenHeight = 750;
+    // IDs of recycled components, reused before new IDs are handed out
+    private int[] freeIDs;
+    private int numFreeIDs;
+    // Recycled components by type, ready to be reused
+    private HashMap<String, ArrayDeque<ViewComponent>> pools;
+    private ViewBackend backend;
+    private BlockingQueue<ButtonClick> buttonClicks;
+    private RenderScheduler renderScheduler;
+    private FrameMonitor frameMonitor;
+    static final int SCREEN_WIDTH = 1350;
+    static final int SCREEN_HEIGHT = 750;
+
+    // Instrumentation
+    private long created;
+    private long reused;
+    private long recycled;
+    // Counted from any thread; the cost per lookup is timed separately
+    private final LongAdder lookups = new LongAdder();
 
     /**
      * Constructs a new UI instance and initializes the JavaFX stage and scene.
      * 
      * @param primaryStage the primary stage for this application
-     * @throws MidiUnavailableException if the synthesizer cannot be opened
-     */
-    public UI(Stage primaryStage) throws MidiUnavailableException {
-        try {
-            audioComponent = new AudioComponent();
-        } catch (MidiUnavailableException e) {
-            System.err.println("Failed to open synthesizer: " + e.getMessage());
-            throw e;
-        }
+     */
+    public UI(Stage primaryStage) {
+        this(new FxViewBackend(primaryStage));
+    }
 
-        viewComponents = new HashMap<>();
+    /**
+     * Constructs a new UI instance that shows its components through a backend.
+     * 
+     * @param backend the backend to show the components with
+     */
+    public UI(ViewBackend backend) {
+        this.backend = backend;
+        viewComponents = new ViewComponent[INITIAL_CAPACITY];
+        componentTypes = new String[INITIAL_CAPACITY];
         numComponents = 0;
+        freeIDs = new int[INITIAL_CAPACITY];
+        numFreeIDs = 0;
+        pools = new HashMap<>();
+        buttonClicks = new LinkedBlockingQueue<>();
+        renderScheduler = new RenderScheduler(backend);
+        frameMonitor = new FrameMonitor(frameBudgetNanos());
+        renderScheduler.setFrameMonitor(frameMonitor);
+        renderScheduler.submit(() -> backend.startFrameMonitor(frameMonitor));
+    }
 
-        // javafx init
-        pane = new Pane();
-        pane.setLayoutX(0);
-        pane.setLayoutY(0);
-        Scene scene = new Scene(pane, screenWidth, screenHeight);
-        pane.setPrefSize(screenWidth, screenHeight);
-
-        // Set up the Stage
-        primaryStage.setTitle("Pitch Perfect");
-        primaryStage.setScene(scene);
-        primaryStage.setResizable(false);
-        primaryStage.show();
+    /**
+     * Returns the backend the components are shown through.
+     * 
+     * @return the view backend
+     */
+    public ViewBackend getBackend() {
+        return backend;
     }
 
     /**
@@ -66,7 +95,7 @@ public class UI {
      * @return the screen width
      */
     public int getScreenWidth() {
-        return screenWidth;
+        return SCREEN_WIDTH;
     }
 
     /**
@@ -75,39 +104,63 @@ public class UI {
      * @return the screen height
      */
     public int getScreenHeight() {
-        return screenHeight;
+        return SCREEN_HEIGHT;
     }
 
     /**
-     * Returns the map of view components.
+     * Returns a copy of the registry, indexed by component ID. IDs of recycled
+     * components hold null.
      * 
-     * @return the map of view components
+     * @return the view components by ID
      */
-    public HashMap<Integer, ViewComponent> getViewComponents() {
-        return viewComponents;
+    public ViewComponent[] getViewComponents() {
+        return Arrays.copyOf(viewComponents, numComponents);
     }
 
     /**
      * Returns the view component with the specified ID.
      * 
      * @param viewComponentID the ID of the view component
-     * @return the view component with the specified ID
+     * @return the view component with the specified ID, or null if there is none
      */
     public ViewComponent getViewComponent(int viewComponentID) {
-        return viewComponents.get(viewComponentID);
+        lookups.increment();
+        if (viewComponentID < 0 || viewComponentID >= numComponents) {
+            return null;
+        }
+        return viewComponents[viewComponentID];
+    }
+
+    /**
+     * Returns the queue that buttons publish their clicks to.
+     * 
+     * @return the queue of button clicks
+     */
+    public BlockingQueue<ButtonClick> getButtonClicks() {
+        return buttonClicks;
     }
 
     /**
-     * Returns the audio component.
+     * Returns the scheduler that applies view changes on the FX thread.
      * 
-     * @return the audio component
+     * @return the render scheduler
      */
-    public AudioComponent getAudioComponent() {
-        return audioComponent;
+    public RenderScheduler getRenderScheduler() {
+        return renderScheduler;
+    }
+
+    /**
+     * Returns the monitor measuring frame times and render batches.
+     * 
+     * @return the frame monitor
+     */
+    public FrameMonitor getFrameMonitor() {
+        return frameMonitor;
     }
 
     /**
      * Creates a new view component and attaches it as a child to the specified parent component.
+     * Its node is placed in the nearest enclosing group, or at the top level if there is none.
      * 
      * @param parentID the ID of the parent view component
      * @param componentType the type of the view component to create
@@ -115,66 +168,235 @@ public class UI {
      * @return the ID of the created view component
      */
     public int createViewComponent(int parentID, String componentType, int[] cords) {
-        ViewComponent parent = viewComponents.get(parentID);
+        ViewComponent parent = viewComponents[parentID];
 
-        int newComponentID = createViewComponent(componentType);
-        ViewComponent newComponent = viewComponents.get(newComponentID);
+        int newComponentID = createViewComponent(componentType, findGroup(parent));
+        ViewComponent newComponent = viewComponents[newComponentID];
         parent.addComponent(newComponent, cords);
         return newComponentID;
     }
 
     /**
-     * Creates a new view component of the specified type.
+     * Creates a new view component of the specified type, reusing a recycled
+     * component of that type if there is one.
      * 
      * @param componentType the type of the view component to create
      * @return the ID of the created view component
      */
     public int createViewComponent(String componentType) {
+        return createViewComponent(componentType, null);
+    }
+
+    /**
+     * Creates a view component whose node is placed in the given group.
+     * 
+     * @param componentType the type of the view component to create
+     * @param group the group to place the node in, or null for the top level
+     * @return the ID of the created view component
+     */
+    private int createViewComponent(String componentType, GroupComponent group) {
+        ArrayDeque<ViewComponent> pool = pools.get(componentType);
         ViewComponent newComponent;
-        if (componentType.equals("text")) {
-            newComponent = new TextComponent();
-        } else if (componentType.equals("image")) {
-            newComponent = new ImageComponent();
-        } else if (componentType.equals("rectangle")) {
-            newComponent = new RectangleComponent();
-        } else if (componentType.equals("button")) {
-            newComponent = new ButtonComponent();
+        if (pool != null && !pool.isEmpty()) {
+            newComponent = pool.pop();
+            reused++;
         } else {
-            throw new IllegalArgumentException("requested component type does not exist");
+            newComponent = newViewComponent(componentType);
+            newComponent.setScheduler(renderScheduler);
+            created++;
         }
 
-        newComponent.setID(numComponents);
+        int id = numFreeIDs > 0 ? freeIDs[--numFreeIDs] : nextID();
+        newComponent.setID(id);
+        viewComponents[id] = newComponent;
+        componentTypes[id] = componentType;
 
-        Platform.runLater(() -> {
-            pane.getChildren().add(newComponent.getObject());
-        });
-        viewComponents.put(numComponents, newComponent);
-        numComponents++;
-        return numComponents - 1;
+        renderScheduler.attach(newComponent, group);
+        return id;
     }
 
-    /*
-     * with current datastructure I'm using, i must do more to ensure that the
-     * maximum orderRank is never
-     * more than numComponents
+    /**
+     * Returns how long a frame may take before it is reported as slow. It is
+     * pitchperfect.frameBudgetMillis if set, which may be fractional, and
+     * otherwise one frame at the JavaFX pulse rate, so frames are held to
+     * 8.3 ms when running with javafx.animation.framerate=120.
+     *
+     * @return the frame budget in nanoseconds
+     * @throws IllegalArgumentException if a property is not a number or the
+     *                                  frame rate is not positive
      */
+    private static long frameBudgetNanos() {
+        String budgetMillis = System.getProperty("pitchperfect.frameBudgetMillis");
+        if (budgetMillis != null) {
+            return Math.round(Double.parseDouble(budgetMillis) * 1e6);
+        }
+        int frameRate = Integer.getInteger("javafx.animation.framerate", DEFAULT_FRAME_RATE);
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + frameRate);
+        }
+        return NANOS_PER_SECOND / frameRate;
+    }
+
     /**
-     * Sorts the view components based on their order rank and brings them to the front in the correct order.
+     * Finds the group a component's descendants are placed in.
+     * 
+     * @param component the component
+     * @return the component itself or its nearest ancestor that is a group, or
+     *         null if there is none
      */
-    public void sortViewOrder() {
-        ArrayList<Integer>[] sortedComponents = new ArrayList[numComponents];
-        for (int i = 0; i < numComponents; i++) {
-            sortedComponents[i] = new ArrayList<Integer>();
+    private static GroupComponent findGroup(ViewComponent component) {
+        while (component != null && !(component instanceof GroupComponent)) {
+            component = component.getParent();
         }
-        for (ViewComponent component : viewComponents.values()) {
-            if (!component.getHidden()) {
-                sortedComponents[component.getOrderRank()].add(component.getID());
-            }
+        return (GroupComponent) component;
+    }
+
+    /**
+     * Removes a view component from the registry and the scene and returns it to
+     * the pool of its type. Its ID is reused by a later component, so it must
+     * not be used after it is recycled. Children are not recycled with it.
+     * 
+     * @param viewComponentID the ID of the view component
+     * @throws IllegalArgumentException if there is no component with the ID
+     */
+    public void recycleViewComponent(int viewComponentID) {
+        ViewComponent component = getViewComponent(viewComponentID);
+        if (component == null) {
+            throw new IllegalArgumentException("No view component with ID " + viewComponentID);
+        }
+        String componentType = componentTypes[viewComponentID];
+        viewComponents[viewComponentID] = null;
+        componentTypes[viewComponentID] = null;
+        if (numFreeIDs == freeIDs.length) {
+            freeIDs = Arrays.copyOf(freeIDs, 2 * freeIDs.length);
+        }
+        freeIDs[numFreeIDs++] = viewComponentID;
+
+        component.reset();
+        renderScheduler.detach(component);
+        pools.computeIfAbsent(componentType, type -> new ArrayDeque<>()).push(component);
+        recycled++;
+    }
+
+    /**
+     * Destroys a view component and all of its descendants. The component is
+     * removed from its parent, and each component is removed from the scene and
+     * recycled. None of their IDs may be used afterwards.
+     * 
+     * @param viewComponentID the ID of the view component
+     * @throws IllegalArgumentException if there is no component with the ID
+     */
+    public void destroyViewComponent(int viewComponentID) {
+        ViewComponent component = getViewComponent(viewComponentID);
+        if (component == null) {
+            throw new IllegalArgumentException("No view component with ID " + viewComponentID);
+        }
+        if (component.getParent() != null) {
+            component.getParent().removeComponent(component);
+        }
+        destroyTree(component);
+    }
+
+    /**
+     * Recycles a component after its descendants.
+     * 
+     * @param component the root of the tree to recycle
+     */
+    private void destroyTree(ViewComponent component) {
+        // Copied since recycling the component clears its children
+        ViewComponent[] children = Arrays.copyOf(component.getComponents(), component.getNumChildren());
+        for (ViewComponent child : children) {
+            destroyTree(child);
         }
-        for (int i = 0; i < numComponents; i++) {
-            for (int id : sortedComponents[i]) {
-                getViewComponent(id).toFront();
+        recycleViewComponent(component.getID());
+    }
+
+    /**
+     * Returns a summary of the registry's size, reuse, lookups and the heap in
+     * use. Timing every lookup would cost more than the lookup itself, so the
+     * cost per lookup is measured here over a run of lookups across the
+     * registry's IDs.
+     * 
+     * @return the statistics as a String
+     */
+    public String getRegistryStatistics() {
+        int pooled = 0;
+        for (ArrayDeque<ViewComponent> pool : pools.values()) {
+            pooled += pool.size();
+        }
+        long lookupCount = lookups.sum();
+        // The first run warms up the JIT
+        timeLookups();
+        double lookupNanos = timeLookups();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        return String.format("View registry: %d live components, %d IDs (capacity %d), %d created, %d reused, %d recycled, %d pooled, %d lookups (%.1f ns each), %.1f MB heap in use",
+                numComponents - numFreeIDs, numComponents, viewComponents.length, created, reused, recycled, pooled,
+                lookupCount, lookupNanos, heap / 1048576.0);
+    }
+
+    /**
+     * Times a run of lookups that cycles through every ID in the registry.
+     * They are not counted as lookups.
+     * 
+     * @return the average time per lookup in nanoseconds
+     */
+    private double timeLookups() {
+        int ids = Math.max(1, numComponents);
+        int found = 0;
+        int id = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_LOOKUPS; i++) {
+            if (getViewComponent(id) != null) {
+                found++;
             }
+            id = id + 1 == ids ? 0 : id + 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        lookups.add(-TIMED_LOOKUPS);
+        // Used so the loop is not optimized away
+        return found < 0 ? 0 : (double) elapsed / TIMED_LOOKUPS;
+    }
+
+    /**
+     * Hands out the next unused ID, growing the registry if it is full.
+     * 
+     * @return the new ID
+     */
+    private int nextID() {
+        if (numComponents == viewComponents.length) {
+            viewComponents = Arrays.copyOf(viewComponents, 2 * viewComponents.length);
+            componentTypes = Arrays.copyOf(componentTypes, 2 * componentTypes.length);
+        }
+        return numComponents++;
+    }
+
+    /**
+     * Constructs a view component of the specified type.
+     * 
+     * @param componentType the type of the view component to create
+     * @return the new view component
+     * @throws IllegalArgumentException if the type does not exist
+     */
+    private ViewComponent newViewComponent(String componentType) {
+        ViewComponent newComponent;
+        if (componentType.equals("text")) {
+            newComponent = new TextComponent();
+        } else if (componentType.equals("image")) {
+            newComponent = new ImageComponent();
+        } else if (componentType.equals("rectangle")) {
+            newComponent = new RectangleComponent();
+        } else if (componentType.equals("button")) {
+            newComponent = new ButtonComponent(buttonClicks);
+        } else if (componentType.equals("staff")) {
+            newComponent = new StaffComponent();
+        } else if (componentType.equals("scrollingStaff")) {
+            newComponent = new ScrollingStaffComponent();
+        } else if (componentType.equals("group")) {
+            newComponent = new GroupComponent();
+        } else {
+            throw new IllegalArgumentException("requested component type does not exist");
         }
+        return newComponent;
     }
 }
@@ -0,0 +1,69 @@
+package View;
+
+/**
+ * A ViewBackend is where the UI's components are shown. The render scheduler
+ * hands it batches to run and the changes in them: components joining or
+ * leaving the scene, z-order changes and components with pending state.
+ * FxViewBackend shows them in a JavaFX window. HeadlessViewBackend runs without
+ * a display and can record the changes instead.
+ */
+public interface ViewBackend {
+    /**
+     * Checks if the backend shows components on a display, so their JavaFX
+     * nodes are created and images are decoded.
+     *
+     * @return true if components are shown on a display
+     */
+    boolean hasDisplay();
+
+    /**
+     * Runs a render batch on the backend's view thread. The render scheduler
+     * posts a batch only once the previous one has started.
+     *
+     * @param batch the batch to run
+     */
+    void post(Runnable batch);
+
+    /**
+     * Adds a component to the scene.
+     *
+     * @param component the component to add
+     * @param group     the group to place it in, or null for the top level
+     */
+    void attach(ViewComponent component, GroupComponent group);
+
+    /**
+     * Removes a component from the scene.
+     *
+     * @param component the component to remove
+     */
+    void detach(ViewComponent component);
+
+    /**
+     * Moves a component in front of the others in its group.
+     *
+     * @param component the component to move
+     */
+    void toFront(ViewComponent component);
+
+    /**
+     * Moves a component behind the others in its group.
+     *
+     * @param component the component to move
+     */
+    void toBack(ViewComponent component);
+
+    /**
+     * Applies a component's pending state.
+     *
+     * @param component the component whose state changed
+     */
+    void apply(ViewComponent component);
+
+    /**
+     * Starts measuring frames, if the backend has frames.
+     *
+     * @param monitor the frame monitor to start
+     */
+    void startFrameMonitor(FrameMonitor monitor);
+}
@@ -1,19 +1,36 @@
 package View;
 
-import javafx.application.Platform;
+import java.util.Arrays;
+
 import javafx.scene.Node;
 
 /**
  * Abstract class representing a view component in a graphical user interface.
+ * Changes to a component may be made from any thread. They are recorded as
+ * pending state and applied to the JavaFX node by the UI's RenderScheduler.
+ * The node itself is only created when a backend with a display first needs
+ * it.
  */
 public abstract class ViewComponent {
+    // Pending change flags, extensions use bits from FIRST_HELPER_FLAG upwards
+    protected static final int DIRTY_XY = 1;
+    protected static final int DIRTY_HIDDEN = 1 << 1;
+    protected static final int DIRTY_ORDER = 1 << 2;
+    protected static final int FIRST_HELPER_FLAG = 1 << 4;
+
     private int id;
     private int[] xyCords;
     private int orderRank;
+    // The rank the scene is ordered by, read on the FX thread
+    private volatile int renderRank;
+    private ViewComponent parent;
     private ViewComponent[] components;
     private int numChildren;
     private int componentCapacity;
-    private boolean isHidden;
+    private volatile boolean isHidden;
+    private RenderScheduler scheduler;
+    private int pendingFlags;
+    private final int[] renderXY;
 
     /**
      * Constructor to initialize a ViewComponent with default values.
@@ -29,6 +46,122 @@ public abstract class ViewComponent {
         }
         orderRank = 0;
         isHidden = true;
+        renderXY = new int[4];
+        pendingFlags = 0;
+    }
+
+    /**
+     * Attaches this component to the scheduler that applies its changes.
+     * Components that are not attached apply changes immediately.
+     * 
+     * @param scheduler the UI's render scheduler
+     */
+    void setScheduler(RenderScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the scheduler this component is attached to.
+     * 
+     * @return the render scheduler, or null if not attached
+     */
+    protected RenderScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Records that part of this component's pending state changed and queues the
+     * component for the next render batch if it is not already queued.
+     * 
+     * @param flag the DIRTY flag of the changed state
+     */
+    protected final void markDirty(int flag) {
+        boolean firstChange;
+        synchronized (this) {
+            firstChange = pendingFlags == 0;
+            pendingFlags |= flag;
+        }
+        if (scheduler == null) {
+            applyPending();
+            return;
+        }
+        scheduler.countMutation();
+        if (firstChange) {
+            scheduler.markDirty(this);
+        }
+    }
+
+    /**
+     * Applies the pending state to the JavaFX node. Called on the FX thread by the
+     * render scheduler.
+     */
+    final synchronized void applyPending() {
+        int flags = pendingFlags;
+        pendingFlags = 0;
+        if ((flags & DIRTY_XY) != 0) {
+            updateXYHelper(renderXY);
+        }
+        if ((flags & DIRTY_HIDDEN) != 0) {
+            setHiddenHelper(isHidden);
+        }
+        if ((flags & DIRTY_ORDER) != 0 && scheduler != null) {
+            scheduler.orderChanged(this);
+        }
+        applyPendingHelper(flags);
+    }
+
+    /**
+     * Clears the pending state without applying it, for backends that do not
+     * draw.
+     * 
+     * @return the DIRTY flags that were set since the last apply
+     */
+    final synchronized int takePending() {
+        int flags = pendingFlags;
+        pendingFlags = 0;
+        return flags;
+    }
+
+    /**
+     * Describes the state this component would be drawn with, for recording
+     * view operations.
+     * 
+     * @return the component's type, ID and render state
+     */
+    final synchronized String describe() {
+        return getClass().getSimpleName() + " " + id + " hidden=" + isHidden + " xy=" + Arrays.toString(renderXY)
+                + describeHelper();
+    }
+
+    /**
+     * Describes render state owned by an extension. Called with the
+     * component's lock held.
+     * 
+     * @return the extension's state, starting with a space, or an empty String
+     */
+    protected String describeHelper() {
+        return "";
+    }
+
+    /**
+     * Applies pending state owned by an extension. Called with the component's
+     * lock held.
+     * 
+     * @param flags the DIRTY flags that were set since the last apply
+     */
+    protected void applyPendingHelper(int flags) {
+    }
+
+    /**
+     * Copies coordinates into the pending render state.
+     * 
+     * @param xyCordsNew the coordinates to draw the component at
+     */
+    private void setRenderXY(int[] xyCordsNew) {
+        synchronized (this) {
+            System.arraycopy(xyCordsNew, 0, renderXY, 0, 4);
+        }
+        markDirty(DIRTY_XY);
     }
 
     /**
@@ -60,8 +193,8 @@ public abstract class ViewComponent {
         }
         xyCords = xyCordsNew;
 
-        // private abstract method to be implemented by extensions
-        updateXYHelper(xyCords);
+        // drawn by the abstract method implemented by extensions
+        setRenderXY(xyCords);
     }
 
     /**
@@ -70,7 +203,7 @@ public abstract class ViewComponent {
      * @param xyCordsNew the coordinates that the component will be set to
      */
     public void setXY(int[] xyCordsNew) {
-        updateXYHelper(xyCordsNew);
+        setRenderXY(xyCordsNew);
     }
 
     /**
@@ -82,28 +215,57 @@ public abstract class ViewComponent {
         return orderRank;
     }
 
+    /**
+     * Returns the order rank the scene is currently ordered by.
+     * 
+     * @return the applied order rank
+     */
+    int getRenderRank() {
+        return renderRank;
+    }
+
     /**
      * Sets the order rank of this component and adjusts the ranks of its children.
+     * Components with a higher rank are drawn in front of those with a lower one
+     * in the same group or pane. The scene is only reordered when a rank changes.
      * 
      * @param newRank the new order rank to set
      */
     public void setOrderRank(int newRank) {
         int rankDifference = newRank - orderRank;
+        if (rankDifference == 0) {
+            return;
+        }
         for (ViewComponent component : components) {
             if (component != null) {
                 component.setOrderRank(component.getOrderRank() + rankDifference);
             }
         }
         orderRank = newRank;
+        renderRank = newRank;
+        markDirty(DIRTY_ORDER);
     }
 
     /**
      * Brings this component to the front of the view.
      */
     public void toFront() {
-        Platform.runLater(() -> {
+        if (scheduler == null) {
             getObject().toFront();
-        });
+        } else {
+            scheduler.toFront(this);
+        }
+    }
+
+    /**
+     * Sends this component to the back of the view.
+     */
+    public void toBack() {
+        if (scheduler == null) {
+            getObject().toBack();
+        } else {
+            scheduler.toBack(this);
+        }
     }
 
     /**
@@ -113,7 +275,7 @@ public abstract class ViewComponent {
      */
     public void setHidden(boolean isHidden) {
         this.isHidden = isHidden;
-        setHiddenHelper(isHidden);
+        markDirty(DIRTY_HIDDEN);
     }
 
     /**
@@ -163,6 +325,60 @@ public abstract class ViewComponent {
         // Finish
         components[numChildren] = component;
         numChildren++;
+        component.parent = this;
+    }
+
+    /**
+     * Removes a child ViewComponent from this component.
+     * 
+     * @param component the child component to remove
+     * @return true if the component was a child of this component
+     */
+    public boolean removeComponent(ViewComponent component) {
+        for (int i = 0; i < numChildren; i++) {
+            if (components[i] == component) {
+                System.arraycopy(components, i + 1, components, i, numChildren - i - 1);
+                numChildren--;
+                components[numChildren] = null;
+                component.parent = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the component this component was added to.
+     * 
+     * @return the parent component, or null if this component has none
+     */
+    public ViewComponent getParent() {
+        return parent;
+    }
+
+    /**
+     * Resets this component to the state of a newly created one so it can be
+     * reused from a pool. The component is hidden and loses its children.
+     */
+    void reset() {
+        for (int i = 0; i < numChildren; i++) {
+            components[i] = null;
+        }
+        numChildren = 0;
+        parent = null;
+        xyCords = new int[4];
+        // The node leaves the scene when recycled, so nothing needs reordering
+        orderRank = 0;
+        renderRank = 0;
+        setHidden(true);
+        resetHelper();
+    }
+
+    /**
+     * Resets state owned by an extension when the component is returned to a
+     * pool.
+     */
+    protected void resetHelper() {
     }
 
     /**